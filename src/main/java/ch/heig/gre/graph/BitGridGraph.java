@@ -0,0 +1,243 @@
+package ch.heig.gre.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>Implémentation compacte de {@link GridGraph2D}, aux mêmes complexités temporelles que {@link GridGraph}.</p>
+ *
+ * <p>Chaque arête n'est stockée qu'une fois, par le sommet à sa gauche ou au-dessus d'elle : chaque sommet dispose de
+ * 2 bits (arête vers la droite, arête vers le bas), 32 sommets par {@code long}. Les arêtes vers le haut et vers la
+ * gauche sont lues chez le voisin correspondant. La grille occupe ainsi un quart d'octet par sommet au lieu des 4
+ * octets de {@link GridGraph}, et les voisins d'un sommet sont lus dans un ou deux mots mémoire.</p>
+ */
+public final class BitGridGraph implements GridGraph2D {
+  /** Bits d'un sommet dans son mot : arête vers la droite puis vers le bas */
+  private static final int RIGHT_BIT = 1;
+  private static final int DOWN_BIT = 2;
+
+  /** Largeur */
+  private final int width;
+
+  /** Hauteur */
+  private final int height;
+
+  /** Arêtes vers la droite et vers le bas, 2 bits par sommet à partir du bit {@code 2 * v} */
+  private final long[] bits;
+
+  /**
+   * Construit une grille carrée.
+   * @param side Côté de la grille.
+   */
+  public BitGridGraph(int side) {
+    this(side, side);
+  }
+
+  /**
+   * Construit une grille rectangulaire.
+   * @param width Largeur de la grille.
+   * @param height Hauteur de la grille.
+   * @throws IllegalArgumentException si {@code width} ou {@code length} sont négatifs.
+   */
+  public BitGridGraph(int width, int height) {
+    if (width < 0 || height < 0)
+      throw new IllegalArgumentException("Width: " + width + " and height: " + height + " must be non negative");
+
+    this.width = width;
+    this.height = height;
+    this.bits = new long[(int) ((2L * width * height + 63) / 64)];
+  }
+
+  /**
+   * Constructeur de copie.
+   * @param graph Graphe à copier.
+   */
+  private BitGridGraph(BitGridGraph graph) {
+    this.width = graph.width;
+    this.height = graph.height;
+    this.bits = graph.bits.clone();
+  }
+
+  @Override
+  public List<Integer> neighbors(int v) {
+    assertExists(v);
+
+    // Même ordre que GridGraph : haut, gauche, droite, bas
+    List<Integer> neighbors = new ArrayList<>(4);
+    if (v >= width && has(v - width, DOWN_BIT))
+      neighbors.add(v - width);
+    if (v % width > 0 && has(v - 1, RIGHT_BIT))
+      neighbors.add(v - 1);
+    if (has(v, RIGHT_BIT))
+      neighbors.add(v + 1);
+    if (has(v, DOWN_BIT))
+      neighbors.add(v + width);
+    return neighbors;
+  }
+
+  @Override
+  public int neighborMask(int v) {
+    assertExists(v);
+
+    // Les 2 bits du sommet, décalés sur RIGHT et DOWN
+    int own = (int) (bits[v >>> 5] >>> ((v & 31) << 1)) & (RIGHT_BIT | DOWN_BIT);
+    return own << 2
+          | (v >= width && has(v - width, DOWN_BIT) ? UP : 0)
+          | (v % width > 0 && has(v - 1, RIGHT_BIT) ? LEFT : 0);
+  }
+
+  @Override
+  public List<Edge> edges() {
+    List<Edge> edges = new ArrayList<>();
+
+    for (int v = 0; v < nbVertices(); ++v) {
+      // Haut et bas
+      if (v >= width && has(v - width, DOWN_BIT))
+        edges.add(new Edge(v - width, v));
+
+      // Gauche et droite
+      if (v % width > 0 && has(v - 1, RIGHT_BIT))
+        edges.add(new Edge(v - 1, v));
+    }
+
+    return edges;
+  }
+
+  @Override
+  public boolean areAdjacent(int u, int v) {
+    assertExists(u);
+    assertExists(v);
+
+    return areAdjacentInGrid(u, v) && has(Math.min(u, v), edgeBit(u, v));
+  }
+
+  @Override
+  public void addEdge(int u, int v) {
+    assertExists(u);
+    assertExists(v);
+
+    if (!areAdjacentInGrid(u, v))
+      throw new IllegalArgumentException("Can't create edge {" + u + "," + v + "}: " +
+            "Only adjacent vertices in the grid can be bound");
+
+    if (has(Math.min(u, v), edgeBit(u, v)))
+      throw new IllegalArgumentException("Edge {" + u + "," + v + "} already exists");
+
+    set(Math.min(u, v), edgeBit(u, v), true);
+  }
+
+  @Override
+  public void removeEdge(int u, int v) {
+    assertExists(u);
+    assertExists(v);
+
+    if (!areAdjacent(u, v))
+      throw new IllegalArgumentException("Edge {" + u + "," + v + "} does not exist");
+
+    set(Math.min(u, v), edgeBit(u, v), false);
+  }
+
+  @Override
+  public BitGridGraph copy() {
+    return new BitGridGraph(this);
+  }
+
+  @Override
+  public int nbVertices() {
+    return width * height;
+  }
+
+  @Override
+  public boolean vertexExists(int v) {
+    return v >= 0 && v < nbVertices();
+  }
+
+  @Override
+  public int width() {
+    return width;
+  }
+
+  @Override
+  public int height() {
+    return height;
+  }
+
+  // internal helpers
+
+  private void assertExists(int v) {
+    if (!vertexExists(v))
+      throw new IndexOutOfBoundsException("Vertex " + v + " out of bounds. Domain: [0," + nbVertices() + "[");
+  }
+
+  /**
+   * Vérifier si deux sommets sont adjacents dans la grille,
+   * sans vérification sur les sommets.
+   *
+   * @param u Un sommet
+   * @param v Un autre sommet
+   * @return true si les sommets sont adjacents dans la grille, false sinon
+   */
+  private boolean areAdjacentInGrid(int u, int v) {
+    int d = Math.abs(u - v);
+    return u != v && (d == width || d == 1 && u / width == v / width);
+  }
+
+  /**
+   * @param u Un sommet
+   * @param v Un sommet voisin dans la grille
+   * @return Le bit de l'arête {u, v} chez le plus petit des deux sommets
+   */
+  private int edgeBit(int u, int v) {
+    return Math.abs(u - v) == 1 && width != 1 ? RIGHT_BIT : DOWN_BIT;
+  }
+
+  /**
+   * @param v Un sommet
+   * @param bit {@link #RIGHT_BIT} ou {@link #DOWN_BIT}
+   * @return true si l'arête correspondante existe, false sinon
+   */
+  private boolean has(int v, int bit) {
+    return (bits[v >>> 5] & (long) bit << ((v & 31) << 1)) != 0;
+  }
+
+  /**
+   * Crée ou supprime une arête, sans vérification.
+   * @param v Le sommet à gauche ou au-dessus de l'arête
+   * @param bit {@link #RIGHT_BIT} ou {@link #DOWN_BIT}
+   * @param value true pour ajouter l'arête, false pour l'enlever
+   */
+  private void set(int v, int bit, boolean value) {
+    long mask = (long) bit << ((v & 31) << 1);
+    if (value)
+      bits[v >>> 5] |= mask;
+    else
+      bits[v >>> 5] &= ~mask;
+  }
+
+  // Public static helpers
+
+  /**
+   * Lie chaque sommet du graphe donné à tous ses voisins dans la grille.
+   * @param graph Un graphe.
+   * @throws NullPointerException si {@code graph} est null.
+   */
+  public static void bindAll(BitGridGraph graph) {
+    // Grille vide : pas d'arête, et pas de bord droit à retirer
+    if (graph.nbVertices() == 0)
+      return;
+
+    // Toutes les arêtes, mot par mot, puis retrait de celles sortant de la grille
+    Arrays.fill(graph.bits, -1L);
+
+    int n = graph.nbVertices();
+    for (int y = 0; y < graph.height; ++y)
+      graph.set(y * graph.width + graph.width - 1, RIGHT_BIT, false);
+    for (int v = Math.max(0, n - graph.width); v < n; ++v)
+      graph.set(v, DOWN_BIT, false);
+
+    // Bits au-delà du dernier sommet
+    if ((n & 31) != 0)
+      graph.bits[graph.bits.length - 1] &= (1L << ((n & 31) << 1)) - 1;
+  }
+}
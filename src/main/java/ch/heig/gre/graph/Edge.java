@@ -25,6 +25,43 @@ public record Edge(int u, int v) {
     // Non uniforme, mais inutile de s'en soucier ici
     return u + v;
   }
+
+  /**
+   * <p>Encode une arête dans un {@code long}, <i>u</i> dans les 32 bits de poids fort et <i>v</i> dans les 32 bits
+   * de poids faible, sans créer d'objet.</p>
+   *
+   * @param u Une extrémité de l'arête (positive ou nulle).
+   * @param v L'autre extrémité de l'arête (positive ou nulle).
+   * @return L'arête encodée, positive ou nulle.
+   * @see Graph#edgeStream()
+   */
+  public static long pack(int u, int v) {
+    return (long) u << 32 | v;
+  }
+
+  /**
+   * @param edge Une arête encodée par {@link #pack(int, int)}.
+   * @return Sa première extrémité.
+   */
+  public static int first(long edge) {
+    return (int) (edge >>> 32);
+  }
+
+  /**
+   * @param edge Une arête encodée par {@link #pack(int, int)}.
+   * @return Sa seconde extrémité.
+   */
+  public static int second(long edge) {
+    return (int) edge;
+  }
+
+  /**
+   * @param edge Une arête encodée par {@link #pack(int, int)}.
+   * @return L'arête correspondante.
+   */
+  public static Edge unpack(long edge) {
+    return new Edge(first(edge), second(edge));
+  }
 }
 
 
@@ -0,0 +1,141 @@
+package ch.heig.gre.graph;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>Grille dont chaque sommet est adjacent à tous ses voisins dans la grille, c'est-à-dire la topologie d'un
+ * labyrinthe.</p>
+ *
+ * <p>Rien n'est stocké hormis la largeur et la hauteur : les voisins, l'adjacence et les arêtes sont calculés. La
+ * grille n'est pas modifiable, elle remplace une {@link GridGraph} liée par {@link GridGraph#bindAll(GridGraph)}
+ * partout où elle n'est que lue.</p>
+ */
+public final class FullGridGraph implements GridGraph2D {
+  /** Largeur */
+  private final int width;
+
+  /** Hauteur */
+  private final int height;
+
+  /**
+   * Construit une grille carrée.
+   * @param side Côté de la grille.
+   */
+  public FullGridGraph(int side) {
+    this(side, side);
+  }
+
+  /**
+   * Construit une grille rectangulaire.
+   * @param width Largeur de la grille.
+   * @param height Hauteur de la grille.
+   * @throws IllegalArgumentException si {@code width} ou {@code length} sont négatifs.
+   */
+  public FullGridGraph(int width, int height) {
+    if (width < 0 || height < 0)
+      throw new IllegalArgumentException("Width: " + width + " and height: " + height + " must be non negative");
+
+    this.width = width;
+    this.height = height;
+  }
+
+  @Override
+  public List<Integer> neighbors(int v) {
+    int mask = neighborMask(v);
+
+    // Même ordre que GridGraph : haut, gauche, droite, bas
+    List<Integer> neighbors = new ArrayList<>(4);
+    if ((mask & UP) != 0) neighbors.add(v - width);
+    if ((mask & LEFT) != 0) neighbors.add(v - 1);
+    if ((mask & RIGHT) != 0) neighbors.add(v + 1);
+    if ((mask & DOWN) != 0) neighbors.add(v + width);
+    return neighbors;
+  }
+
+  @Override
+  public int neighborMask(int v) {
+    assertExists(v);
+
+    int x = v % width;
+    return (v >= width ? UP : 0)
+          | (x > 0 ? LEFT : 0)
+          | (x < width - 1 ? RIGHT : 0)
+          | (v < nbVertices() - width ? DOWN : 0);
+  }
+
+  @Override
+  public List<Edge> edges() {
+    // Haut puis gauche de chaque sommet, comme GridGraph
+    List<Edge> edges = new ArrayList<>(nbEdges());
+    edgeStream().forEachOrdered(edge -> edges.add(Edge.unpack(edge)));
+    return edges;
+  }
+
+  @Override
+  public boolean areAdjacent(int u, int v) {
+    assertExists(u);
+    assertExists(v);
+
+    int d = Math.abs(u - v);
+    return u != v && (d == width || d == 1 && u / width == v / width);
+  }
+
+  /**
+   * @throws UnsupportedOperationException toujours, la grille n'est pas modifiable.
+   */
+  @Override
+  public void addEdge(int u, int v) {
+    throw new UnsupportedOperationException("A full grid can't be modified");
+  }
+
+  /**
+   * @throws UnsupportedOperationException toujours, la grille n'est pas modifiable.
+   */
+  @Override
+  public void removeEdge(int u, int v) {
+    throw new UnsupportedOperationException("A full grid can't be modified");
+  }
+
+  /**
+   * @return Cette grille, qui n'est pas modifiable.
+   */
+  @Override
+  public FullGridGraph copy() {
+    return this;
+  }
+
+  @Override
+  public int nbVertices() {
+    return width * height;
+  }
+
+  @Override
+  public boolean vertexExists(int v) {
+    return v >= 0 && v < nbVertices();
+  }
+
+  @Override
+  public int width() {
+    return width;
+  }
+
+  @Override
+  public int height() {
+    return height;
+  }
+
+  // internal helpers
+
+  private void assertExists(int v) {
+    if (!vertexExists(v))
+      throw new IndexOutOfBoundsException("Vertex " + v + " out of bounds. Domain: [0," + nbVertices() + "[");
+  }
+
+  /**
+   * @return Le nombre d'arêtes : une par paire de voisins sur chaque ligne et sur chaque colonne.
+   */
+  private int nbEdges() {
+    return width == 0 || height == 0 ? 0 : (width - 1) * height + width * (height - 1);
+  }
+}
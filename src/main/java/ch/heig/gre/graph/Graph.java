@@ -1,6 +1,8 @@
 package ch.heig.gre.graph;
 
 import java.util.List;
+import java.util.function.IntConsumer;
+import java.util.stream.LongStream;
 
 /**
  * <p>Graphe simple non orienté à nombre fixe de sommets <i>n</i>.</p>
@@ -17,6 +19,37 @@ public interface Graph {
    */
   List<Integer> neighbors(int v);
 
+  /**
+   * <p>Écrit les sommets adjacents au sommet donné au début d'un tableau, dans le même ordre que
+   * {@link #neighbors(int)}, sans allouer de liste ni d'entiers.</p>
+   *
+   * <p>Si le tableau est trop petit, seules ses premières cases sont écrites, le nombre total de voisins étant tout de
+   * même retourné.</p>
+   *
+   * @param v Un sommet
+   * @param out Tableau recevant les voisins.
+   * @return Le nombre de voisins de <i>v</i>.
+   * @throws IndexOutOfBoundsException si <i>v</i> n'existe pas.
+   */
+  default int neighbors(int v, int[] out) {
+    List<Integer> neighbors = neighbors(v);
+    for (int i = 0; i < neighbors.size() && i < out.length; ++i)
+      out[i] = neighbors.get(i);
+    return neighbors.size();
+  }
+
+  /**
+   * Applique une action à chaque sommet adjacent au sommet donné, dans le même ordre que {@link #neighbors(int)}.
+   *
+   * @param v Un sommet
+   * @param action Action appliquée à chaque voisin.
+   * @throws IndexOutOfBoundsException si <i>v</i> n'existe pas.
+   */
+  default void forEachNeighbor(int v, IntConsumer action) {
+    for (int neighbor : neighbors(v))
+      action.accept(neighbor);
+  }
+
   /**
    * <p>Liste modifiable (sans impacter le graphe) des arêtes du graphe.</p>
    *
@@ -27,6 +60,22 @@ public interface Graph {
    */
   List<Edge> edges();
 
+  /**
+   * <p>Flux des arêtes du graphe, chacune encodée par {@link Edge#pack(int, int)}, dans le même ordre que
+   * {@link #edges()}.</p>
+   *
+   * <p>Contrairement à {@link #edges()}, les implémentations sont invitées à produire les arêtes au fur et à mesure,
+   * sans les matérialiser : un parcours de toutes les arêtes se fait alors en mémoire constante, et le flux peut être
+   * découpé pour un parcours parallèle. Le graphe ne doit pas être modifié pendant le parcours.</p>
+   *
+   * <p>L'implémentation par défaut passe par {@link #edges()}.</p>
+   *
+   * @return Les arêtes encodées du graphe.
+   */
+  default LongStream edgeStream() {
+    return edges().stream().mapToLong(edge -> Edge.pack(edge.u(), edge.v()));
+  }
+
   /**
    * Détermine si deux sommets donnés sont adjacents.
    *
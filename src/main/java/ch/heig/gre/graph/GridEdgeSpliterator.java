@@ -0,0 +1,110 @@
+package ch.heig.gre.graph;
+
+import java.util.Spliterator;
+import java.util.function.LongConsumer;
+
+/**
+ * <p>Parcours des arêtes d'une grille sur une plage de sommets, chaque arête étant produite par son extrémité en bas
+ * ou à droite : d'abord vers le haut, puis vers la gauche, comme {@link GridGraph#edges()}.</p>
+ *
+ * <p>Un sommet produit au plus 2 arêtes : la seconde est gardée en attente lorsque le consommateur n'en demande
+ * qu'une. Le découpage coupe la plage restante en deux.</p>
+ */
+final class GridEdgeSpliterator implements Spliterator.OfLong {
+  /** Nombre de sommets en-deçà duquel une plage n'est plus découpée */
+  private static final int MIN_SPLIT = 1 << 12;
+
+  /** Pas d'arête en attente, les arêtes encodées étant positives ou nulles */
+  private static final long NONE = -1;
+
+  /** Grille parcourue */
+  private final GridGraph2D grid;
+
+  /** Prochain sommet à lire */
+  private int next;
+
+  /** Fin (exclue) de la plage de sommets */
+  private final int end;
+
+  /** Seconde arête du dernier sommet lu, si elle n'a pas encore été produite */
+  private long pending = NONE;
+
+  /**
+   * @param grid Grille parcourue.
+   * @param start Premier sommet de la plage.
+   * @param end Fin (exclue) de la plage.
+   */
+  GridEdgeSpliterator(GridGraph2D grid, int start, int end) {
+    this.grid = grid;
+    this.next = start;
+    this.end = end;
+  }
+
+  @Override
+  public boolean tryAdvance(LongConsumer action) {
+    if (pending != NONE) {
+      long edge = pending;
+      pending = NONE;
+      action.accept(edge);
+      return true;
+    }
+
+    int width = grid.width();
+    while (next < end) {
+      int v = next++;
+      int mask = grid.neighborMask(v);
+      if ((mask & GridGraph2D.UP) != 0) {
+        if ((mask & GridGraph2D.LEFT) != 0)
+          pending = Edge.pack(v - 1, v);
+        action.accept(Edge.pack(v - width, v));
+        return true;
+      }
+      if ((mask & GridGraph2D.LEFT) != 0) {
+        action.accept(Edge.pack(v - 1, v));
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public void forEachRemaining(LongConsumer action) {
+    if (pending != NONE) {
+      long edge = pending;
+      pending = NONE;
+      action.accept(edge);
+    }
+
+    int width = grid.width();
+    for (; next < end; ++next) {
+      int v = next;
+      int mask = grid.neighborMask(v);
+      if ((mask & GridGraph2D.UP) != 0)
+        action.accept(Edge.pack(v - width, v));
+      if ((mask & GridGraph2D.LEFT) != 0)
+        action.accept(Edge.pack(v - 1, v));
+    }
+  }
+
+  @Override
+  public Spliterator.OfLong trySplit() {
+    // L'arête en attente précède toute la plage restante, qui ne peut donc plus être coupée
+    if (pending != NONE || end - next < 2 * MIN_SPLIT)
+      return null;
+
+    int start = next;
+    next = start + (end - start) / 2;
+    return new GridEdgeSpliterator(grid, start, next);
+  }
+
+  @Override
+  public long estimateSize() {
+    // Au plus 2 arêtes par sommet
+    return 2L * (end - next) + (pending != NONE ? 1 : 0);
+  }
+
+  @Override
+  public int characteristics() {
+    return ORDERED | DISTINCT | NONNULL;
+  }
+}
@@ -2,6 +2,7 @@ package ch.heig.gre.graph;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * Implémentation de {@link GridGraph2D} pour laquelle toutes les opérations sont exécutées en temps constant de
@@ -18,6 +19,9 @@ public final class GridGraph implements GridGraph2D {
     RIGHT { public int offset(int width) { return 1; } },
     DOWN { public int offset(int width) { return width; } };
 
+    /** Toutes les directions, values() copiant le tableau à chaque appel */
+    private static final Direction[] VALUES = values();
+
     /**
      * Décalage entre deux numéros de sommets voisins selon la direction courante.
      *
@@ -30,18 +34,18 @@ public final class GridGraph implements GridGraph2D {
      * Index dans le tableau des arêtes de l'extrémité au sommet v
      * d'une arête dans la direction courante.
      *
-     * @param v Un sommet
+     * @param index L'index de v dans la disposition de la grille
      * @return L'index de l'arête partant de v dans la direction courante.
      */
-    public int edgeIndex(int v) {
-      return values().length * v + ordinal();
+    public int edgeIndex(int index) {
+      return VALUES.length * index + ordinal();
     }
 
     /**
      * @return La direction opposée (Haut - Bas, Gauche - Droite).
      */
     public Direction opposite() {
-      return values()[values().length - ordinal() - 1];
+      return VALUES[VALUES.length - ordinal() - 1];
     }
 
     /**
@@ -56,7 +60,7 @@ public final class GridGraph implements GridGraph2D {
      */
     public static Direction fromOffset(int width, int offset) {
       // Magie noire, à remplacer par des conditions explicites
-      return values()[(int) Math.ceil((1 + 1e-6) * offset / width) + 1];
+      return VALUES[(int) Math.ceil((1 + 1e-6) * offset / width) + 1];
     }
   }
 
@@ -66,9 +70,12 @@ public final class GridGraph implements GridGraph2D {
   /** hauteur */
   private final int height;
 
+  /** Disposition des sommets dans le tableau des arêtes */
+  private final VertexLayout layout;
+
   /**
    * <p>Tableau des arêtes du graphe. Chaque sommet dispose de 4 slots successifs (un par direction)
-   * situés à l'index {@code 4 * v}.</p>
+   * situés à l'index {@code 4 * layout.index(v)}.</p>
    *
    * <p>L'ordre des slots est Haut-Gauche-Droite-Bas.</p>
    *
@@ -92,12 +99,23 @@ public final class GridGraph implements GridGraph2D {
    * @throws IllegalArgumentException si {@code width} ou {@code length} sont négatifs ou nuls.
    */
   public GridGraph(int width, int height) {
-    if (width < 0 || height < 0)
-      throw new IllegalArgumentException("Width: " + width + " and height: " + height + " must be non negative");
+    this(VertexLayout.rowMajor(width, height));
+  }
 
-    this.width = width;
-    this.height = height;
-    this.edges = new boolean[Direction.values().length * nbVertices()];
+  /**
+   * <p>Construit une grille dont les arêtes sont rangées selon la disposition donnée.</p>
+   *
+   * <p>Les sommets restent numérotés ligne par ligne, seule la localité des accès change : une disposition par
+   * tuiles rapproche en mémoire les voisins verticaux.</p>
+   *
+   * @param layout Disposition des sommets, qui détermine la largeur et la hauteur de la grille.
+   * @throws NullPointerException si {@code layout} est {@code null}.
+   */
+  public GridGraph(VertexLayout layout) {
+    this.width = layout.width();
+    this.height = layout.height();
+    this.layout = layout;
+    this.edges = new boolean[Direction.VALUES.length * layout.size()];
   }
 
   /**
@@ -107,6 +125,7 @@ public final class GridGraph implements GridGraph2D {
   private GridGraph(GridGraph graph) {
     this.width = graph.width;
     this.height = graph.height;
+    this.layout = graph.layout;
     this.edges = graph.edges.clone();
   }
 
@@ -114,29 +133,29 @@ public final class GridGraph implements GridGraph2D {
   public List<Integer> neighbors(int v) {
     assertExists(v);
 
-    List<Integer> neighbors = new ArrayList<>(Direction.values().length);
-    for (Direction direction : Direction.values()) {
-      if (hasEdge(v, direction))
+    int index = layout.index(v);
+    List<Integer> neighbors = new ArrayList<>(Direction.VALUES.length);
+    for (Direction direction : Direction.VALUES) {
+      if (edges[direction.edgeIndex(index)])
         neighbors.add(v + direction.offset(width));
     }
     return neighbors;
   }
 
   @Override
-  public List<Edge> edges() {
-    List<Edge> edges = new ArrayList<>();
-
-    for (int v = 0; v < nbVertices(); ++v) {
-      // Haut et bas
-      if (v >= width && hasEdge(v, Direction.UP))
-        edges.add(new Edge(v - width, v));
+  public int neighborMask(int v) {
+    assertExists(v);
 
-      // Gauche et droite
-      if (v % width > 0 && hasEdge(v, Direction.LEFT))
-        edges.add(new Edge(v - 1, v));
-    }
+    // Les slots sont dans l'ordre des bits du masque
+    int slot = Direction.VALUES.length * layout.index(v);
+    return (edges[slot] ? UP : 0) | (edges[slot + 1] ? LEFT : 0) | (edges[slot + 2] ? RIGHT : 0)
+          | (edges[slot + 3] ? DOWN : 0);
+  }
 
-    return edges;
+  @Override
+  public List<Edge> edges() {
+    // Haut puis gauche de chaque sommet, voir edgeStream()
+    return edgeStream().mapToObj(Edge::unpack).collect(Collectors.toCollection(ArrayList::new));
   }
 
   @Override
@@ -201,6 +220,13 @@ public final class GridGraph implements GridGraph2D {
     return height;
   }
 
+  /**
+   * @return La disposition des sommets dans le tableau des arêtes.
+   */
+  public VertexLayout layout() {
+    return layout;
+  }
+
   // internal helpers
 
   private void assertExists(int v) {
@@ -229,8 +255,8 @@ public final class GridGraph implements GridGraph2D {
    * @param value true pour ajouter l'arête, false pour l'enlever
    */
   private void setEdge(int u, Direction direction, boolean value) {
-    edges[direction.edgeIndex(u)] = value;
-    edges[direction.opposite().edgeIndex(u + direction.offset(width))] = value;
+    edges[direction.edgeIndex(layout.index(u))] = value;
+    edges[direction.opposite().edgeIndex(layout.index(u + direction.offset(width)))] = value;
   }
 
   /**
@@ -239,7 +265,7 @@ public final class GridGraph implements GridGraph2D {
    * @return true si le sommet à un voisin dans la direction donnée, false sinon
    */
   private boolean hasEdge(int v, Direction direction) {
-    return edges[direction.edgeIndex(v)];
+    return edges[direction.edgeIndex(layout.index(v))];
   }
 
   // Public static helpers
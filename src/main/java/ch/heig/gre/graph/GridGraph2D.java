@@ -1,5 +1,9 @@
 package ch.heig.gre.graph;
 
+import java.util.function.IntConsumer;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
 /**
  * <p>Graphe contraint à une grille rectangulaire. Ses sommets sont numérotés de 0 à
  * <i>{@link GridGraph2D#width()} * {@link GridGraph2D#height()} - 1</i>, ordonnés par ligne puis par colonne
@@ -9,6 +13,12 @@ package ch.heig.gre.graph;
  * <p>Il n'est pas possible d'avoir une arête entre deux sommets non adjacents dans la grille.</p>
  */
 public interface GridGraph2D extends MutableGraph {
+  /** Bits de {@link #neighborMask(int)} : voisin au-dessus, à gauche, à droite et au-dessous. */
+  int UP = 1;
+  int LEFT = 2;
+  int RIGHT = 4;
+  int DOWN = 8;
+
   /**
    * @return Largeur de la grille.
    */
@@ -19,6 +29,64 @@ public interface GridGraph2D extends MutableGraph {
    */
   int height();
 
+  /**
+   * <p>Voisins d'un sommet sous forme de masque de 4 bits ({@link #UP}, {@link #LEFT}, {@link #RIGHT},
+   * {@link #DOWN}), sans aucune allocation.</p>
+   *
+   * <p>L'implémentation par défaut passe par {@link #neighbors(int)}, les implémentations sont invitées à la
+   * redéfinir.</p>
+   *
+   * @param v Un sommet.
+   * @return Le masque des directions dans lesquelles <i>v</i> a un voisin.
+   * @throws IndexOutOfBoundsException si <i>v</i> n'existe pas.
+   */
+  default int neighborMask(int v) {
+    int mask = 0;
+    for (int neighbor : neighbors(v)) {
+      if (neighbor == v - width()) mask |= UP;
+      else if (neighbor == v + width()) mask |= DOWN;
+      else if (neighbor == v - 1) mask |= LEFT;
+      else mask |= RIGHT;
+    }
+    return mask;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Un tableau de taille 4 suffit toujours.</p>
+   */
+  @Override
+  default int neighbors(int v, int[] out) {
+    int mask = neighborMask(v);
+    int count = 0;
+    if ((mask & UP) != 0 && count < out.length) out[count++] = v - width();
+    if ((mask & LEFT) != 0 && count < out.length) out[count++] = v - 1;
+    if ((mask & RIGHT) != 0 && count < out.length) out[count++] = v + 1;
+    if ((mask & DOWN) != 0 && count < out.length) out[count++] = v + width();
+    return Integer.bitCount(mask);
+  }
+
+  @Override
+  default void forEachNeighbor(int v, IntConsumer action) {
+    int mask = neighborMask(v);
+    if ((mask & UP) != 0) action.accept(v - width());
+    if ((mask & LEFT) != 0) action.accept(v - 1);
+    if ((mask & RIGHT) != 0) action.accept(v + 1);
+    if ((mask & DOWN) != 0) action.accept(v + width());
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Les arêtes sont lues au fur et à mesure par {@link #neighborMask(int)}, vers le haut puis vers la gauche de
+   * chaque sommet, et le flux se découpe par plages de sommets.</p>
+   */
+  @Override
+  default LongStream edgeStream() {
+    return StreamSupport.longStream(new GridEdgeSpliterator(this, 0, nbVertices()), false);
+  }
+
   @Override
   GridGraph2D copy();
 }
@@ -0,0 +1,159 @@
+package ch.heig.gre.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * <p>Vue d'une grille restreinte à un sous-ensemble de ses sommets : seules les arêtes entre deux sommets inclus sont
+ * visibles. Les sommets exclus existent toujours, mais sont isolés.</p>
+ *
+ * <p>Le sous-ensemble est marqué par génération, de sorte que {@link #clear()} est en temps constant et que la même
+ * vue peut être réutilisée d'une recherche à l'autre. Les modifications de la grille sous-jacente sont visibles, mais
+ * la vue elle-même n'est pas modifiable.</p>
+ */
+public final class MaskedGridGraph implements GridGraph2D {
+  /** Grille sous-jacente */
+  private final GridGraph2D grid;
+
+  /** Génération à laquelle chaque sommet a été inclus */
+  private final int[] stamps;
+
+  /** Génération courante, les sommets marqués d'une autre génération sont exclus */
+  private int generation = 1;
+
+  /**
+   * Construit une vue n'incluant aucun sommet.
+   * @param grid Grille sous-jacente.
+   * @throws NullPointerException si {@code grid} est {@code null}.
+   */
+  public MaskedGridGraph(GridGraph2D grid) {
+    this.grid = grid;
+    this.stamps = new int[grid.nbVertices()];
+  }
+
+  /**
+   * Constructeur de copie.
+   * @param view Vue à copier.
+   */
+  private MaskedGridGraph(MaskedGridGraph view) {
+    this.grid = view.grid.copy();
+    this.stamps = view.stamps.clone();
+    this.generation = view.generation;
+  }
+
+  /**
+   * @return La grille sous-jacente.
+   */
+  public GridGraph2D grid() {
+    return grid;
+  }
+
+  /**
+   * Exclut tous les sommets.
+   */
+  public void clear() {
+    if (++generation == 0) {
+      // Après 2^32 générations, les anciennes marques pourraient redevenir valides
+      Arrays.fill(stamps, 0);
+      generation = 1;
+    }
+  }
+
+  /**
+   * Inclut un sommet.
+   * @param v Un sommet.
+   * @throws IndexOutOfBoundsException si <i>v</i> n'existe pas.
+   */
+  public void include(int v) {
+    stamps[v] = generation;
+  }
+
+  /**
+   * @param v Un sommet.
+   * @return {@code true} si <i>v</i> est inclus, {@code false} sinon.
+   * @throws IndexOutOfBoundsException si <i>v</i> n'existe pas.
+   */
+  public boolean isIncluded(int v) {
+    return stamps[v] == generation;
+  }
+
+  @Override
+  public List<Integer> neighbors(int v) {
+    List<Integer> neighbors = grid.neighbors(v);
+    if (!isIncluded(v)) {
+      neighbors.clear();
+      return neighbors;
+    }
+
+    neighbors.removeIf(neighbor -> !isIncluded(neighbor));
+    return neighbors;
+  }
+
+  @Override
+  public int neighborMask(int v) {
+    int mask = grid.neighborMask(v);
+    if (!isIncluded(v))
+      return 0;
+
+    int width = grid.width();
+    if ((mask & UP) != 0 && !isIncluded(v - width)) mask &= ~UP;
+    if ((mask & LEFT) != 0 && !isIncluded(v - 1)) mask &= ~LEFT;
+    if ((mask & RIGHT) != 0 && !isIncluded(v + 1)) mask &= ~RIGHT;
+    if ((mask & DOWN) != 0 && !isIncluded(v + width)) mask &= ~DOWN;
+    return mask;
+  }
+
+  @Override
+  public List<Edge> edges() {
+    // Sans passer par la liste de toutes les arêtes de la grille
+    return edgeStream().mapToObj(Edge::unpack).collect(Collectors.toCollection(ArrayList::new));
+  }
+
+  @Override
+  public boolean areAdjacent(int u, int v) {
+    return grid.areAdjacent(u, v) && isIncluded(u) && isIncluded(v);
+  }
+
+  @Override
+  public int nbVertices() {
+    return grid.nbVertices();
+  }
+
+  @Override
+  public boolean vertexExists(int v) {
+    return grid.vertexExists(v);
+  }
+
+  @Override
+  public int width() {
+    return grid.width();
+  }
+
+  @Override
+  public int height() {
+    return grid.height();
+  }
+
+  /**
+   * @throws UnsupportedOperationException toujours, la vue n'est pas modifiable.
+   */
+  @Override
+  public void addEdge(int u, int v) {
+    throw new UnsupportedOperationException("A masked grid can't be modified");
+  }
+
+  /**
+   * @throws UnsupportedOperationException toujours, la vue n'est pas modifiable.
+   */
+  @Override
+  public void removeEdge(int u, int v) {
+    throw new UnsupportedOperationException("A masked grid can't be modified");
+  }
+
+  @Override
+  public MaskedGridGraph copy() {
+    return new MaskedGridGraph(this);
+  }
+}
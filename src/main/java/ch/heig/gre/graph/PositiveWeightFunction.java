@@ -29,4 +29,15 @@ public interface PositiveWeightFunction {
    * @return Un entier strictement positif.
    */
   int minWeight();
+
+  /**
+   * <p>Borne supérieure pour les poids des arêtes.</p>
+   *
+   * <p>L'implémentation par défaut retourne {@link Integer#MAX_VALUE}, i.e. aucune borne n'est connue.</p>
+   *
+   * @return Un entier supérieur ou égal à {@link #minWeight()}.
+   */
+  default int maxWeight() {
+    return Integer.MAX_VALUE;
+  }
 }
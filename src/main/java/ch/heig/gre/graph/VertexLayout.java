@@ -0,0 +1,161 @@
+package ch.heig.gre.graph;
+
+/**
+ * <p>Disposition en mémoire des sommets d'une grille : associe à chaque sommet, toujours numéroté ligne par ligne
+ * dans l'API, l'index de ses données dans les tableaux d'une implémentation.</p>
+ *
+ * <p>Numérotés ligne par ligne, deux voisins verticaux sont séparés d'une ligne entière : sur une grande grille, un
+ * parcours qui avance dans toutes les directions touche une ligne de cache différente à chaque pas vertical. Les
+ * dispositions par tuiles rangent les sommets par carrés de {@value #TILE_SIDE} x {@value #TILE_SIDE}, les tuiles
+ * étant elles-mêmes rangées ligne par ligne :</p>
+ * <ul>
+ *   <li>{@link #tiled} : ligne par ligne dans chaque tuile, un voisin vertical est à {@value #TILE_SIDE} cases ;</li>
+ *   <li>{@link #morton} : en Z (ordre de Morton) dans chaque tuile, les voisins sont le plus souvent dans la même
+ *   ligne de cache.</li>
+ * </ul>
+ *
+ * <p>Les tuiles du bord droit et du bord bas sont complétées, les tableaux ont donc {@link #size()} cases, un peu
+ * plus que de sommets. Le Z est limité à une tuile pour que ce surplus reste borné quelle que soit la forme de la
+ * grille. La traduction d'un sommet en index est en temps constant, sans division.</p>
+ */
+public final class VertexLayout {
+  /** Côté des tuiles, puissance de 2 */
+  public static final int TILE_SIDE = 32;
+
+  /** Logarithme en base 2 de {@link #TILE_SIDE} */
+  private static final int TILE_SHIFT = Integer.numberOfTrailingZeros(TILE_SIDE);
+
+  /** Position d'une case dans sa tuile */
+  private static final int TILE_MASK = TILE_SIDE - 1;
+
+  private enum Order { ROW_MAJOR, TILED, MORTON }
+
+  private final Order order;
+
+  /** Largeur */
+  private final int width;
+
+  /** Hauteur */
+  private final int height;
+
+  /** Nombre de tuiles par ligne de tuiles */
+  private final int tilesPerRow;
+
+  /** Division par la largeur : {@code v / width == (v * divisor) >>> divisorShift} pour tout sommet positif */
+  private final long divisor;
+  private final int divisorShift;
+
+  private VertexLayout(Order order, int width, int height) {
+    if (width < 0 || height < 0)
+      throw new IllegalArgumentException("Width: " + width + " and height: " + height + " must be non negative");
+
+    this.order = order;
+    this.width = width;
+    this.height = height;
+    this.tilesPerRow = (width + TILE_MASK) >>> TILE_SHIFT;
+
+    // Granlund et Montgomery : ceil(2^(31 + l) / width), avec 2^l >= width, est exact pour tout v < 2^31
+    int l = width <= 1 ? 0 : 32 - Integer.numberOfLeadingZeros(width - 1);
+    this.divisorShift = 31 + l;
+    this.divisor = width == 0 ? 0 : ((1L << divisorShift) + width - 1) / width;
+  }
+
+  /**
+   * @param width Largeur de la grille.
+   * @param height Hauteur de la grille.
+   * @return La disposition ligne par ligne, où l'index d'un sommet est son numéro.
+   * @throws IllegalArgumentException si {@code width} ou {@code height} sont négatifs.
+   */
+  public static VertexLayout rowMajor(int width, int height) {
+    return new VertexLayout(Order.ROW_MAJOR, width, height);
+  }
+
+  /**
+   * @param width Largeur de la grille.
+   * @param height Hauteur de la grille.
+   * @return La disposition par tuiles, ligne par ligne dans chaque tuile.
+   * @throws IllegalArgumentException si {@code width} ou {@code height} sont négatifs.
+   */
+  public static VertexLayout tiled(int width, int height) {
+    return new VertexLayout(Order.TILED, width, height);
+  }
+
+  /**
+   * @param width Largeur de la grille.
+   * @param height Hauteur de la grille.
+   * @return La disposition par tuiles, en Z dans chaque tuile.
+   * @throws IllegalArgumentException si {@code width} ou {@code height} sont négatifs.
+   */
+  public static VertexLayout morton(int width, int height) {
+    return new VertexLayout(Order.MORTON, width, height);
+  }
+
+  /**
+   * @return Largeur de la grille.
+   */
+  public int width() {
+    return width;
+  }
+
+  /**
+   * @return Hauteur de la grille.
+   */
+  public int height() {
+    return height;
+  }
+
+  /**
+   * @return Nombre de sommets de la grille.
+   */
+  public int nbVertices() {
+    return width * height;
+  }
+
+  /**
+   * @return Nombre de cases des tableaux indexés par {@link #index(int)}, tuiles du bord comprises.
+   */
+  public int size() {
+    if (order == Order.ROW_MAJOR)
+      return nbVertices();
+
+    int tilesPerColumn = (height + TILE_MASK) >>> TILE_SHIFT;
+    return Math.multiplyExact(tilesPerRow * tilesPerColumn, TILE_SIDE * TILE_SIDE);
+  }
+
+  /**
+   * <p>Index des données d'un sommet.</p>
+   *
+   * <p>Aucune vérification n'est effectuée sur le sommet.</p>
+   *
+   * @param v Un sommet, numéroté ligne par ligne.
+   * @return Son index, dans <i>[0, {@link #size()}[</i>.
+   */
+  public int index(int v) {
+    if (order == Order.ROW_MAJOR)
+      return v;
+
+    int y = (int) ((v * divisor) >>> divisorShift);
+    int x = v - y * width;
+    int tile = (y >>> TILE_SHIFT) * tilesPerRow + (x >>> TILE_SHIFT);
+    int inner = order == Order.TILED
+        ? (y & TILE_MASK) << TILE_SHIFT | (x & TILE_MASK)
+        : spread(x & TILE_MASK) | spread(y & TILE_MASK) << 1;
+    return tile << 2 * TILE_SHIFT | inner;
+  }
+
+  @Override
+  public String toString() {
+    return order.name().toLowerCase().replace('_', '-');
+  }
+
+  /**
+   * @param bits Un entier sur au plus 16 bits.
+   * @return Ses bits, séparés chacun par un bit nul.
+   */
+  private static int spread(int bits) {
+    bits = (bits | bits << 8) & 0x00FF00FF;
+    bits = (bits | bits << 4) & 0x0F0F0F0F;
+    bits = (bits | bits << 2) & 0x33333333;
+    return (bits | bits << 1) & 0x55555555;
+  }
+}
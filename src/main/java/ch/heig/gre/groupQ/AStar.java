@@ -5,30 +5,24 @@ import ch.heig.gre.graph.GridGraph2D;
 import ch.heig.gre.graph.PositiveWeightFunction;
 import ch.heig.gre.graph.VertexLabelling;
 import ch.heig.gre.maze.GridMazeSolver;
+import ch.heig.gre.maze.IndexedHeap;
+import ch.heig.gre.maze.SolverWorkspace;
 
 import java.util.*;
 
 public final class AStar implements GridMazeSolver {
-  // Pair of cost and predecessor
-  public record DistPre(int cost, Integer pred) {}
-
-  // Used as a priority queue entry to store the priority and the vertex
-  public record VertexPriority(int vertex, int prio) {}
-
-  // Pair of 2D coordinates
-  public record Coordinate(int x, int y){}
-
   // Interface used to generalize heuristic implementations usage
   interface HeuristicFunction {
     /**
      * Computes a heuristic distance according to the chosen heuristic function at creation of the class
-     * @param source source vertex
-     * @param destination destination vertex
-     * @param grid grid on which to compute the distance
+     * @param x column of the source vertex
+     * @param y row of the source vertex
+     * @param destinationX column of the destination vertex
+     * @param destinationY row of the destination vertex
      * @param minWeight smallest weight of the graph
      * @return the distance computed
      */
-    int get(int source, int destination, GridGraph2D grid, int minWeight);
+    int get(int x, int y, int destinationX, int destinationY, int minWeight);
   }
 
   public enum Heuristic {
@@ -39,9 +33,12 @@ public final class AStar implements GridMazeSolver {
     K_MANHATTAN
   }
 
-  /** Heuristique utilisée pour l'algorithme A*. */
+  /** Heuristique utilisée pour l'algorithme A*, {@code null} pour l'heuristique ALT. */
   private final Heuristic heuristic;
 
+  /** Distances aux points de repère de l'heuristique ALT, {@code null} pour les heuristiques géométriques. */
+  private final LandmarkTable landmarks;
+
   /** Facteur multiplicatif de la distance de Manhattan utilisé par l'heuristique K-Manhattan. */
   private final int kManhattan;
 
@@ -55,6 +52,7 @@ public final class AStar implements GridMazeSolver {
   public AStar(Heuristic heuristic, int kManhattan) {
     this.heuristic = heuristic;
     this.kManhattan = kManhattan;
+    this.landmarks = null;
 
     // Set appropriate heuristic implementation
     switch (this.heuristic) {
@@ -76,45 +74,69 @@ public final class AStar implements GridMazeSolver {
 
   }
 
-  // Implementation of the various heuristic functions
-
-  private int djikstra(int source, int destination, GridGraph2D grid, int minWeight) {
-    return 0;
+  /**
+   * A* using the ALT heuristic: the triangle inequality bound given by the landmarks of the table. The table must
+   * have been built on the maze and weights given to {@link #solve}.
+   * @param landmarks landmark table of the maze
+   */
+  public AStar(LandmarkTable landmarks) {
+    this.heuristic = null;
+    this.kManhattan = 1;
+    this.landmarks = Objects.requireNonNull(landmarks);
+
+    // Coordinates are converted back to vertices of the grid the table was built on
+    int width = landmarks.width();
+    this.heuristicFunction = (x, y, destinationX, destinationY, minWeight) ->
+        landmarks.lowerBound(y * width + x, destinationY * width + destinationX);
   }
 
-  private int infinityNorm(int source, int destination, GridGraph2D grid, int minWeight) {
-    Coordinate sourceCoord = getCoordinate(grid, source);
-    Coordinate destinationCoord = getCoordinate(grid, destination);
-    int deltaX = Math.abs(destinationCoord.x() - sourceCoord.x());
-    int deltaY = Math.abs(destinationCoord.y() - sourceCoord.y());
+  // Accessors used by the other solvers of the package, sharing the same heuristics
 
-    return minWeight * Math.max(deltaX, deltaY);
+  HeuristicFunction heuristicFunction() {
+    return heuristicFunction;
   }
 
-  private int euclidianNorm(int source, int destination, GridGraph2D grid, int minWeight) {
-    Coordinate sourceCoord = getCoordinate(grid, source);
-    Coordinate destinationCoord = getCoordinate(grid, destination);
-    int x = destinationCoord.x() - sourceCoord.x();
-    int y = destinationCoord.y() - sourceCoord.y();
+  /**
+   * Upper bound of the difference between the heuristic values of two neighbor vertices, i.e. by how much the
+   * estimated total cost of a vertex can be lower than the one of its predecessor.
+   * @param weights weight function of the graph
+   * @return the bound
+   */
+  int heuristicSlope(PositiveWeightFunction weights) {
+    // The ALT bound is consistent, it can't vary by more than the weight of an edge
+    if (landmarks != null)
+      return weights.maxWeight();
+
+    return switch (heuristic) {
+      case DIJKSTRA -> 0;
+      case K_MANHATTAN -> kManhattan * weights.minWeight();
+      default -> weights.minWeight();
+    };
+  }
 
-    return minWeight * (int) Math.floor(Math.hypot(x, y));
+  // Implementation of the various heuristic functions, on primitive coordinates so that no object is allocated
+
+  private int djikstra(int x, int y, int destinationX, int destinationY, int minWeight) {
+    return 0;
   }
 
-  private int manhattan(int source, int destination, GridGraph2D grid, int minWeight) {
-    Coordinate sourceCoord = getCoordinate(grid, source);
-    Coordinate destinationCoord = getCoordinate(grid, destination);
+  private int infinityNorm(int x, int y, int destinationX, int destinationY, int minWeight) {
+    int deltaX = Math.abs(destinationX - x);
+    int deltaY = Math.abs(destinationY - y);
 
-    return minWeight * Math.abs(sourceCoord.x() - destinationCoord.x()) + Math.abs(sourceCoord.y() - destinationCoord.y());
+    return minWeight * Math.max(deltaX, deltaY);
   }
 
-  private int kManhattanHeur(int source, int destination, GridGraph2D grid, int minWeight) {
-    return kManhattan * manhattan(source, destination, grid, minWeight);
+  private int euclidianNorm(int x, int y, int destinationX, int destinationY, int minWeight) {
+    return minWeight * (int) Math.floor(Math.hypot(destinationX - x, destinationY - y));
   }
 
-  // Convert a vertex index to a pair of 2D coordinates
-  private static Coordinate getCoordinate(GridGraph2D grid, int vertex) {
-    int width = grid.width();
-    return new Coordinate(vertex % width, vertex / width);
+  private int manhattan(int x, int y, int destinationX, int destinationY, int minWeight) {
+    return minWeight * Math.abs(x - destinationX) + Math.abs(y - destinationY);
+  }
+
+  private int kManhattanHeur(int x, int y, int destinationX, int destinationY, int minWeight) {
+    return kManhattan * manhattan(x, y, destinationX, destinationY, minWeight);
   }
 
   @Override
@@ -123,90 +145,83 @@ public final class AStar implements GridMazeSolver {
                       int source,
                       int destination,
                       VertexLabelling<Boolean> processed) {
+    return solve(grid, weights, source, destination, processed, new SolverWorkspace());
+  }
+
+  @Override
+  public Result solve(GridGraph2D grid,
+                      PositiveWeightFunction weights,
+                      int source,
+                      int destination,
+                      VertexLabelling<Boolean> processed,
+                      SolverWorkspace workspace) {
     // Total number of vertex treated
     int treated = 0;
 
-    // Priority queue used by AStar using VertexPriority::prio as priority
-    PriorityQueue<VertexPriority> prioQueue = new PriorityQueue<>(1, Comparator.comparingInt(VertexPriority::prio));
+    int width = grid.width();
+    int minWeight = weights.minWeight();
+    int destinationX = destination % width;
+    int destinationY = destination / width;
 
-    // Since we have to initialize a distance for each vertex anyway, we store an array.
-    ArrayList<DistPre> distancesToDest = new ArrayList<>();
-    for (int i = 0 ; i < grid.nbVertices(); i++) {
-      // Initialize distances to infinity
-      distancesToDest.add(new DistPre(Integer.MAX_VALUE, null));
-    }
+    // Only the vertices discovered by this search are initialized, in constant time for the whole grid
+    workspace.reset(grid.nbVertices());
 
-    // Set source distance to 0
-    distancesToDest.set(source, new DistPre(0, null));
+    // Indexed priority queue used by AStar, the priority of a vertex being its estimated total cost
+    IndexedHeap prioQueue = workspace.queue();
 
-    // Use a map as we should not calculate the heuristic for every vertices
-    Map<Integer, Integer> heuristicResults = new HashMap<>();
+    // Neighbors of the vertex being treated, read without any allocation
+    int[] neighbors = new int[4];
 
-    // Calculate source heuristic
-    heuristicResults.put(source, this.heuristicFunction.get(source, destination, grid, weights.minWeight()));
+    // Discover the source, calculating its heuristic, and set its distance to 0
+    workspace.discover(source, this.heuristicFunction.get(source % width, source / width, destinationX, destinationY, minWeight));
+    workspace.update(source, 0, SolverWorkspace.NO_PREDECESSOR);
 
     // Add the source to the priority queue
-    prioQueue.add(new VertexPriority(source, heuristicResults.get(source)));
+    prioQueue.insert(source, workspace.heuristic(source));
 
     // Treat each "I" vertex
     while (!prioQueue.isEmpty()) {
       // Poll vertex the with highest priority
-      int currentVertex = prioQueue.poll().vertex();
+      int currentVertex = prioQueue.poll();
       processed.setLabel(currentVertex, true);
 
-      // If we found the destination,
-      if (currentVertex == destination) {
-        // we start to recreate the path from the destination
-        List<Integer> path = new LinkedList<>();
-        while (currentVertex != source) {
-          // while we're not at the source, we add the current vertex at beginning of the path, so it's in good order
-          path.addFirst(currentVertex);
-          currentVertex = distancesToDest.get(currentVertex).pred();
-        }
-        // We end by adding the source to the path, by returning a result object
-        path.addFirst(source);
-
-        return new Result(path, path.size(), treated);
-      }
+      // If we found the destination, we recreate the path from the destination
+      if (currentVertex == destination)
+        return buildResult(workspace, source, destination, treated);
 
       // We are starting to treat a new vertex, so increment total vertices treated
       ++treated;
 
-      // Getting the currently treated vertex's neighbors
-      List<Integer> neighbors = grid.neighbors(currentVertex);
+      // current cost to "I"
+      int deltaI = workspace.cost(currentVertex);
 
       // For each neighbor "J"
-      for (Integer neighborJ : neighbors) {
-        // current cost to "J"
-        int deltaJ = distancesToDest.get(neighborJ).cost();
-
-        // current cost to "I"
-        int deltaI = distancesToDest.get(currentVertex).cost();
+      int nbNeighbors = grid.neighbors(currentVertex, neighbors);
+      for (int i = 0; i < nbNeighbors; ++i) {
+        int neighborJ = neighbors[i];
+        // if "J" has not been discovered yet, calculate its heuristic result (its cost is then infinite)
+        if (!workspace.isDiscovered(neighborJ))
+          workspace.discover(neighborJ, this.heuristicFunction.get(neighborJ % width, neighborJ / width, destinationX, destinationY, minWeight));
 
-        // weight of the edge from "I" to "J"
-        int weight = weights.get(currentVertex, neighborJ);
+        // current cost to "J"
+        int deltaJ = workspace.cost(neighborJ);
 
         // calculate potential new weight from "I" to "J"
-        int newDeltaJ = deltaI + weight;
+        int newDeltaJ = deltaI + weights.get(currentVertex, neighborJ);
 
         // if the weight improved
         if (newDeltaJ < deltaJ) {
-          // if the heuristic result has not been calculated yet from "J"
-          if (deltaJ == Integer.MAX_VALUE) {
-            // calculate it
-            heuristicResults.put(neighborJ, this.heuristicFunction.get(neighborJ, destination, grid, weights.minWeight()));
-          }
-
           // update "J"'s distance and predecessor
-          distancesToDest.set(neighborJ, new DistPre(newDeltaJ, currentVertex));
-
-          int priority = newDeltaJ + heuristicResults.get(neighborJ);
+          workspace.update(neighborJ, newDeltaJ, currentVertex);
 
-          // If the vertex is already in the priority queue, remove it, since it will be added
-          prioQueue.removeIf(vertexPriority -> vertexPriority.vertex == neighborJ);
+          int priority = newDeltaJ + workspace.heuristic(neighborJ);
 
-          // insert neighbor to priority queue.
-          prioQueue.add(new VertexPriority(neighborJ, priority));
+          // If the vertex is already in the priority queue, only lower its priority, otherwise insert it
+          if (prioQueue.contains(neighborJ)) {
+            prioQueue.decreaseKey(neighborJ, priority);
+          } else {
+            prioQueue.insert(neighborJ, priority);
+          }
         }
       }
     }
@@ -214,4 +229,35 @@ public final class AStar implements GridMazeSolver {
     // path to destination is available from the source.
     return new Result(Collections.emptyList(), 0, 0);
   }
-}
\ No newline at end of file
+
+  /**
+   * Rebuilds the path from the source to the destination by following the predecessors.
+   * @param workspace workspace holding the predecessor of each vertex on the shortest path tree
+   * @param source source vertex
+   * @param destination destination vertex
+   * @param treated number of treated vertices
+   * @return the result of the search
+   */
+  static Result buildResult(SolverWorkspace workspace, int source, int destination, int treated) {
+    List<Integer> path = new ArrayList<>();
+    for (int v = destination; v != source; v = workspace.predecessor(v)) {
+      path.add(v);
+    }
+    path.add(source);
+    Collections.reverse(path);
+
+    return new Result(path, path.size(), treated);
+  }
+
+  /**
+   * @param path a path, possibly empty
+   * @param weights weight function of the maze
+   * @return the sum of the weights of the edges along the path, 0 for an empty path
+   */
+  static long pathCost(List<Integer> path, PositiveWeightFunction weights) {
+    long cost = 0;
+    for (int i = 1; i < path.size(); ++i)
+      cost += weights.get(path.get(i - 1), path.get(i));
+    return cost;
+  }
+}
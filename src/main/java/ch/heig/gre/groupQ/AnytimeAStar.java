@@ -0,0 +1,251 @@
+package ch.heig.gre.groupQ;
+
+import ch.heig.gre.graph.GridGraph2D;
+import ch.heig.gre.graph.PositiveWeightFunction;
+import ch.heig.gre.graph.VertexLabelling;
+import ch.heig.gre.maze.GridMazeSolver;
+import ch.heig.gre.maze.IndexedHeap;
+import ch.heig.gre.maze.SolverWorkspace;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Anytime Repairing A* (ARA*): a weighted A* whose inflation factor decreases from one iteration to the next, each
+ * iteration improving the path of the previous one.
+ *
+ * The first iteration is the K_MANHATTAN search (keys g + e * h with a large e), which finds a path quickly. Each
+ * following iteration lowers e and keeps the costs found so far: only the vertices whose cost improved since their
+ * expansion (kept aside as inconsistent) and those still in the queue are searched again, instead of starting over.
+ * After each iteration, the path is at most {@link Solution#bound()} times longer than the shortest one; the last
+ * iteration (e = 1) finds a shortest path.
+ *
+ * The search stops once a time or treatment {@link Budget} runs out, returning the best path found so far.
+ */
+public final class AnytimeAStar implements GridMazeSolver {
+  /** Number of treatments between two checks of the time budget */
+  private static final int CLOCK_PERIOD = 256;
+
+  /**
+   * Limits of a search. Whichever runs out first stops the search.
+   * @param nanos maximal duration of the search, in nanoseconds
+   * @param treatments maximal number of treated vertices
+   */
+  public record Budget(long nanos, long treatments) {
+    /** No limit, the search goes on until a shortest path is found */
+    public static final Budget UNLIMITED = new Budget(Long.MAX_VALUE, Long.MAX_VALUE);
+
+    public static Budget ofMillis(long millis) {
+      return new Budget(millis * 1_000_000, Long.MAX_VALUE);
+    }
+
+    public static Budget ofTreatments(long treatments) {
+      return new Budget(Long.MAX_VALUE, treatments);
+    }
+  }
+
+  /**
+   * Best path found by an iteration.
+   * @param result the path, empty if none was found (yet)
+   * @param inflation inflation factor of the iteration
+   * @param bound the path is at most this many times longer than the shortest one, infinite if there is no path
+   */
+  public record Solution(Result result, double inflation, double bound) {}
+
+  // Regular A*, providing the heuristic
+  private final AStar aStar;
+
+  private final double initialInflation;
+  private final double inflationStep;
+
+  /**
+   * ARA* on the Manhattan heuristic.
+   * @param initialInflation inflation factor of the first iteration (the K of K_MANHATTAN)
+   * @param inflationStep decrease of the inflation factor between two iterations
+   * @throws IllegalArgumentException if initialInflation is below 1 or inflationStep is not positive
+   */
+  public AnytimeAStar(double initialInflation, double inflationStep) {
+    this(AStar.Heuristic.MANHATTAN, initialInflation, inflationStep);
+  }
+
+  /**
+   * @param heuristic a consistent heuristic, inflated by the search
+   * @param initialInflation inflation factor of the first iteration
+   * @param inflationStep decrease of the inflation factor between two iterations
+   * @throws IllegalArgumentException if the heuristic is K_MANHATTAN, if initialInflation is below 1 or if
+   * inflationStep is not positive
+   */
+  public AnytimeAStar(AStar.Heuristic heuristic, double initialInflation, double inflationStep) {
+    if (heuristic == AStar.Heuristic.K_MANHATTAN)
+      throw new IllegalArgumentException("ARA* inflates a consistent heuristic itself");
+    if (initialInflation < 1)
+      throw new IllegalArgumentException("Initial inflation: " + initialInflation + " must be at least 1");
+    if (inflationStep <= 0)
+      throw new IllegalArgumentException("Inflation step: " + inflationStep + " must be positive");
+
+    this.aStar = new AStar(heuristic);
+    this.initialInflation = initialInflation;
+    this.inflationStep = inflationStep;
+  }
+
+  @Override
+  public Result solve(GridGraph2D grid,
+                      PositiveWeightFunction weights,
+                      int source,
+                      int destination,
+                      VertexLabelling<Boolean> processed) {
+    return solve(grid, weights, source, destination, processed, new SolverWorkspace());
+  }
+
+  @Override
+  public Result solve(GridGraph2D grid,
+                      PositiveWeightFunction weights,
+                      int source,
+                      int destination,
+                      VertexLabelling<Boolean> processed,
+                      SolverWorkspace workspace) {
+    return solve(grid, weights, source, destination, processed, workspace, Budget.UNLIMITED, solution -> {}).result();
+  }
+
+  /**
+   * Improves a path until the budget runs out or a shortest path is found.
+   * @param grid the maze
+   * @param weights weight function of the maze
+   * @param source source vertex
+   * @param destination destination vertex
+   * @param processed labelling marking the treated vertices
+   * @param workspace workspace of the search (and its auxiliary workspace)
+   * @param budget limits of the search
+   * @param improvements called with the solution of each completed iteration
+   * @return the solution of the last completed iteration, with an empty path if none completed or there is no path
+   */
+  public Solution solve(GridGraph2D grid,
+                        PositiveWeightFunction weights,
+                        int source,
+                        int destination,
+                        VertexLabelling<Boolean> processed,
+                        SolverWorkspace workspace,
+                        Budget budget,
+                        Consumer<Solution> improvements) {
+    long deadline = budget.nanos() == Long.MAX_VALUE ? Long.MAX_VALUE : System.nanoTime() + budget.nanos();
+
+    int width = grid.width();
+    int minWeight = weights.minWeight();
+    int destinationX = destination % width;
+    int destinationY = destination / width;
+    AStar.HeuristicFunction heuristicFunction = aStar.heuristicFunction();
+
+    // The auxiliary workspace only marks the vertices expanded by the current iteration
+    SolverWorkspace closed = workspace.auxiliary();
+    workspace.reset(grid.nbVertices());
+    IndexedHeap queue = workspace.queue();
+
+    // Expanded vertices whose cost improved during the current iteration, with duplicates
+    int[] inconsistent = new int[16];
+    int nbInconsistent = 0;
+
+    int[] neighbors = new int[4];
+
+    workspace.discover(source, heuristicFunction.get(source % width, source / width, destinationX, destinationY, minWeight));
+    workspace.update(source, 0, SolverWorkspace.NO_PREDECESSOR);
+
+    Solution best = new Solution(new Result(Collections.emptyList(), 0, 0), initialInflation, Double.POSITIVE_INFINITY);
+    List<Integer> bestPath = Collections.emptyList();
+    long bestCost = Long.MAX_VALUE;
+    long treated = 0;
+    double inflation = initialInflation;
+    queue.insert(source, inflatedKey(workspace, source, inflation));
+
+    while (true) {
+      closed.reset(grid.nbVertices());
+
+      // Weighted A* until no vertex in the queue can improve the destination
+      while (!queue.isEmpty() && queue.peekKey() < workspace.cost(destination)) {
+        if (treated >= budget.treatments() || treated % CLOCK_PERIOD == 0 && System.nanoTime() >= deadline)
+          return best;
+
+        int current = queue.poll();
+        processed.setLabel(current, true);
+        closed.discover(current, 0);
+        ++treated;
+
+        int cost = workspace.cost(current);
+        int nbNeighbors = grid.neighbors(current, neighbors);
+        for (int i = 0; i < nbNeighbors; ++i) {
+          int neighbor = neighbors[i];
+          if (!workspace.isDiscovered(neighbor))
+            workspace.discover(neighbor, heuristicFunction.get(neighbor % width, neighbor / width, destinationX, destinationY, minWeight));
+
+          int newCost = cost + weights.get(current, neighbor);
+          if (newCost >= workspace.cost(neighbor)) continue;
+
+          workspace.update(neighbor, newCost, current);
+          if (closed.isDiscovered(neighbor)) {
+            // Already expanded by this iteration, it will be by the next one
+            if (nbInconsistent == inconsistent.length)
+              inconsistent = Arrays.copyOf(inconsistent, 2 * nbInconsistent);
+            inconsistent[nbInconsistent++] = neighbor;
+          } else if (queue.contains(neighbor)) {
+            queue.decreaseKey(neighbor, inflatedKey(workspace, neighbor, inflation));
+          } else {
+            queue.insert(neighbor, inflatedKey(workspace, neighbor, inflation));
+          }
+        }
+      }
+
+      if (workspace.cost(destination) == Integer.MAX_VALUE)
+        // No path at all
+        return best;
+
+      // The queue and the inconsistent vertices are those which could still improve the path
+      int[] open = new int[queue.size() + nbInconsistent];
+      int nbOpen = 0;
+      while (!queue.isEmpty())
+        open[nbOpen++] = queue.poll();
+      for (int i = 0; i < nbInconsistent; ++i)
+        open[nbOpen++] = inconsistent[i];
+      nbInconsistent = 0;
+
+      // The path may cost less than the destination: its vertices may have improved after their successors. The
+      // cheapest path found so far is kept, so that solutions only get better
+      Result result = AStar.buildResult(workspace, source, destination, (int) Math.min(treated, Integer.MAX_VALUE));
+      long resultCost = AStar.pathCost(result.path(), weights);
+      if (resultCost < bestCost) {
+        bestCost = resultCost;
+        bestPath = result.path();
+      }
+      best = new Solution(new Result(bestPath, bestPath.size(), result.treatments()),
+          inflation, bound(workspace, bestCost, inflation, open, nbOpen));
+      improvements.accept(best);
+      if (inflation == 1)
+        return best;
+
+      // Next iteration, on the same vertices with the new keys
+      inflation = Math.max(1, inflation - inflationStep);
+      for (int i = 0; i < nbOpen; ++i) {
+        if (!queue.contains(open[i]))
+          queue.insert(open[i], inflatedKey(workspace, open[i], inflation));
+      }
+    }
+  }
+
+  // Helpers
+
+  private static int inflatedKey(SolverWorkspace workspace, int v, double inflation) {
+    return (int) Math.min(workspace.cost(v) + inflation * workspace.heuristic(v), Integer.MAX_VALUE - 1);
+  }
+
+  /**
+   * Suboptimality bound of a path: the inflation factor, or better the ratio between its cost and the lowest (non
+   * inflated) estimate of the vertices which could still improve it.
+   */
+  private static double bound(SolverWorkspace workspace, long pathCost, double inflation, int[] open, int nbOpen) {
+    long lowest = pathCost;
+    for (int i = 0; i < nbOpen; ++i)
+      lowest = Math.min(lowest, (long) workspace.cost(open[i]) + workspace.heuristic(open[i]));
+
+    return lowest == 0 ? 1 : Math.min(inflation, (double) pathCost / lowest);
+  }
+}
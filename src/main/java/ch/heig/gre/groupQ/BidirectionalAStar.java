@@ -0,0 +1,169 @@
+package ch.heig.gre.groupQ;
+
+import ch.heig.gre.graph.GridGraph2D;
+import ch.heig.gre.graph.PositiveWeightFunction;
+import ch.heig.gre.graph.VertexLabelling;
+import ch.heig.gre.maze.GridMazeSolver;
+import ch.heig.gre.maze.IndexedHeap;
+import ch.heig.gre.maze.SolverWorkspace;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Bidirectional A*: a forward search from the source and a backward search from the destination, alternately
+ * treating the vertex with the lowest key of both sides.
+ *
+ * Both searches use the average potential p(v) = (h(v, destination) - h(v, source)) / 2, so that they explore the
+ * same reduced graph (forward keys use p, backward keys -p) and the bidirectional Dijkstra stopping criterion holds:
+ * the search stops as soon as the sum of both lowest keys reaches the cost of the best path met so far. Keys are
+ * doubled to stay integers.
+ */
+public final class BidirectionalAStar implements GridMazeSolver {
+  // Regular A*, providing the heuristic
+  private final AStar aStar;
+
+  public BidirectionalAStar(AStar.Heuristic heuristic) {
+    this(heuristic, 1);
+  }
+
+  public BidirectionalAStar(AStar.Heuristic heuristic, int kManhattan) {
+    this.aStar = new AStar(heuristic, kManhattan);
+  }
+
+  public BidirectionalAStar(LandmarkTable landmarks) {
+    this.aStar = new AStar(landmarks);
+  }
+
+  @Override
+  public Result solve(GridGraph2D grid,
+                      PositiveWeightFunction weights,
+                      int source,
+                      int destination,
+                      VertexLabelling<Boolean> processed) {
+    return solve(grid, weights, source, destination, processed, new SolverWorkspace());
+  }
+
+  @Override
+  public Result solve(GridGraph2D grid,
+                      PositiveWeightFunction weights,
+                      int source,
+                      int destination,
+                      VertexLabelling<Boolean> processed,
+                      SolverWorkspace workspace) {
+    SolverWorkspace forward = workspace;
+    SolverWorkspace backward = workspace.backward();
+    forward.reset(grid.nbVertices());
+    backward.reset(grid.nbVertices());
+
+    if (source == destination) {
+      processed.setLabel(source, true);
+      return new Result(List.of(source), 1, 0);
+    }
+
+    int treated = 0;
+
+    // Neighbors of the vertex being treated, read without any allocation
+    int[] neighbors = new int[4];
+
+    // Cost of the best path met so far, and the vertex where both searches met on it
+    int bestCost = Integer.MAX_VALUE;
+    int meetingVertex = SolverWorkspace.NO_PREDECESSOR;
+
+    discover(grid, weights, forward, source, source, destination);
+    forward.update(source, 0, SolverWorkspace.NO_PREDECESSOR);
+    forward.queue().insert(source, forward.heuristic(source));
+
+    discover(grid, weights, backward, destination, destination, source);
+    backward.update(destination, 0, SolverWorkspace.NO_PREDECESSOR);
+    backward.queue().insert(destination, backward.heuristic(destination));
+
+    while (!forward.queue().isEmpty() && !backward.queue().isEmpty()) {
+      int forwardKey = forward.queue().peekKey();
+      int backwardKey = backward.queue().peekKey();
+
+      // No path going through a vertex not treated yet can be shorter than the best one
+      if (bestCost != Integer.MAX_VALUE && (long) forwardKey + backwardKey >= 2L * bestCost)
+        break;
+
+      // Expand the side with the lowest key, which balances both searches
+      boolean isForward = forwardKey <= backwardKey;
+      SolverWorkspace current = isForward ? forward : backward;
+      SolverWorkspace opposite = isForward ? backward : forward;
+      int target = isForward ? destination : source;
+      int origin = isForward ? source : destination;
+
+      int currentVertex = current.queue().poll();
+      processed.setLabel(currentVertex, true);
+      ++treated;
+
+      int deltaI = current.cost(currentVertex);
+
+      int nbNeighbors = grid.neighbors(currentVertex, neighbors);
+
+      for (int i = 0; i < nbNeighbors; ++i) {
+
+        int neighborJ = neighbors[i];
+        if (!current.isDiscovered(neighborJ))
+          discover(grid, weights, current, neighborJ, target, origin);
+
+        // The backward search follows the edges the other way around
+        int weight = isForward ? weights.get(currentVertex, neighborJ) : weights.get(neighborJ, currentVertex);
+        int newDeltaJ = deltaI + weight;
+
+        if (newDeltaJ < current.cost(neighborJ)) {
+          current.update(neighborJ, newDeltaJ, currentVertex);
+
+          int priority = 2 * newDeltaJ + current.heuristic(neighborJ);
+          IndexedHeap queue = current.queue();
+          if (queue.contains(neighborJ)) {
+            queue.decreaseKey(neighborJ, priority);
+          } else {
+            queue.insert(neighborJ, priority);
+          }
+
+          // Both searches meet on "J"
+          int oppositeCost = opposite.cost(neighborJ);
+          if (oppositeCost != Integer.MAX_VALUE && newDeltaJ + oppositeCost < bestCost) {
+            bestCost = newDeltaJ + oppositeCost;
+            meetingVertex = neighborJ;
+          }
+        }
+      }
+    }
+
+    if (meetingVertex == SolverWorkspace.NO_PREDECESSOR)
+      return new Result(Collections.emptyList(), 0, 0);
+
+    // Source to meeting vertex, then meeting vertex to destination
+    List<Integer> path = new ArrayList<>();
+    for (int v = meetingVertex; v != SolverWorkspace.NO_PREDECESSOR; v = forward.predecessor(v)) {
+      path.add(v);
+    }
+    Collections.reverse(path);
+    for (int v = backward.predecessor(meetingVertex); v != SolverWorkspace.NO_PREDECESSOR; v = backward.predecessor(v)) {
+      path.add(v);
+    }
+
+    return new Result(path, path.size(), treated);
+  }
+
+  /**
+   * Discovers a vertex in one of the searches, storing its doubled potential.
+   * @param workspace workspace of the search
+   * @param v vertex to discover
+   * @param target vertex the search is heading to
+   * @param origin vertex the search started from
+   */
+  private void discover(GridGraph2D grid, PositiveWeightFunction weights, SolverWorkspace workspace, int v, int target, int origin) {
+    AStar.HeuristicFunction heuristicFunction = aStar.heuristicFunction();
+    int width = grid.width();
+    int x = v % width;
+    int y = v / width;
+
+    int toTarget = heuristicFunction.get(x, y, target % width, target / width, weights.minWeight());
+    int toOrigin = heuristicFunction.get(x, y, origin % width, origin / width, weights.minWeight());
+    workspace.discover(v, toTarget - toOrigin);
+  }
+}
@@ -0,0 +1,59 @@
+package ch.heig.gre.groupQ;
+
+import ch.heig.gre.graph.GridGraph2D;
+import ch.heig.gre.graph.MaskedGridGraph;
+import ch.heig.gre.graph.PositiveWeightFunction;
+import ch.heig.gre.graph.VertexLabelling;
+import ch.heig.gre.maze.GridMazeSolver;
+import ch.heig.gre.maze.SolverWorkspace;
+
+import java.util.Collections;
+
+/**
+ * Solver restricting another solver to the blocks on the {@link BlockCutTree} path between the source and the
+ * destination, so that it never explores the dead ends hanging off that path. Disconnected cells are rejected without
+ * any search.
+ *
+ * Queries on another grid than the one of the tree are handed to the solver unrestricted. A filter must be used by one
+ * thread at a time, its view of the maze being reused from one query to the next.
+ */
+public final class BlockCutFilter implements GridMazeSolver {
+  private final BlockCutTree tree;
+  private final GridMazeSolver solver;
+  private final MaskedGridGraph view;
+
+  /**
+   * @param tree block-cut tree of the maze
+   * @param solver solver of the restricted queries
+   */
+  public BlockCutFilter(BlockCutTree tree, GridMazeSolver solver) {
+    this.tree = tree;
+    this.solver = solver;
+    this.view = new MaskedGridGraph(tree.grid());
+  }
+
+  @Override
+  public Result solve(GridGraph2D grid,
+                      PositiveWeightFunction weights,
+                      int source,
+                      int destination,
+                      VertexLabelling<Boolean> processed) {
+    return solve(grid, weights, source, destination, processed, new SolverWorkspace());
+  }
+
+  @Override
+  public Result solve(GridGraph2D grid,
+                      PositiveWeightFunction weights,
+                      int source,
+                      int destination,
+                      VertexLabelling<Boolean> processed,
+                      SolverWorkspace workspace) {
+    if (grid != tree.grid())
+      return solver.solve(grid, weights, source, destination, processed, workspace);
+
+    if (!tree.restrict(source, destination, view))
+      return new Result(Collections.emptyList(), 0, 0);
+
+    return solver.solve(view, weights, source, destination, processed, workspace);
+  }
+}
@@ -0,0 +1,330 @@
+package ch.heig.gre.groupQ;
+
+import ch.heig.gre.graph.GridGraph2D;
+import ch.heig.gre.graph.MaskedGridGraph;
+
+import java.util.Arrays;
+
+/**
+ * Block-cut tree of a maze: its biconnected components (blocks) and the articulation points joining them.
+ *
+ * The blocks are found by Tarjan's algorithm, with an explicit stack so that long corridors do not overflow the call
+ * stack. In the block-cut tree, each block is linked to the articulation points it contains; a maze with a few cycles
+ * has many small blocks (a corridor edge is a block of its own) and a few large ones around the cycles. A path between
+ * two cells can't leave the blocks on the tree path between them without coming back through the same articulation
+ * point, so a shortest path lies in those blocks: {@link #restrict} keeps them, and the dead ends hanging off the path
+ * are never explored.
+ *
+ * The maze must not change once the tree is built.
+ */
+public final class BlockCutTree {
+  /** No node, for isolated cells and above the roots of the tree */
+  private static final int NONE = -1;
+
+  private final GridGraph2D grid;
+
+  /** Cells of each block, in compressed rows: those of b are in [blockFirst[b], blockFirst[b + 1][ */
+  private final int[] blockFirst;
+  private final int[] blockCells;
+
+  /** Cell of each articulation point, whose node is nbBlocks + its index */
+  private final int[] articulationCells;
+
+  /** Node of each cell: its block, or its articulation point node if it is in several blocks, or NONE if isolated */
+  private final int[] nodes;
+
+  /** Rooted forest of the nodes: parent (NONE for a root) and depth */
+  private final int[] nodeParents;
+  private final int[] nodeDepths;
+
+  private BlockCutTree(GridGraph2D grid, int[] blockFirst, int[] blockCells, int[] articulationCells, int[] nodes,
+                       int[] nodeParents, int[] nodeDepths) {
+    this.grid = grid;
+    this.blockFirst = blockFirst;
+    this.blockCells = blockCells;
+    this.articulationCells = articulationCells;
+    this.nodes = nodes;
+    this.nodeParents = nodeParents;
+    this.nodeDepths = nodeDepths;
+  }
+
+  /**
+   * Builds the block-cut tree of a maze.
+   * @param grid the maze
+   * @return the block-cut tree
+   */
+  public static BlockCutTree build(GridGraph2D grid) {
+    return new Builder(grid).build();
+  }
+
+  /**
+   * @return the maze of the tree
+   */
+  public GridGraph2D grid() {
+    return grid;
+  }
+
+  /**
+   * @return the number of blocks
+   */
+  public int nbBlocks() {
+    return blockFirst.length - 1;
+  }
+
+  /**
+   * @return the number of articulation points
+   */
+  public int nbArticulationPoints() {
+    return articulationCells.length;
+  }
+
+  /**
+   * @param v a cell
+   * @return whether removing v disconnects its component
+   */
+  public boolean isArticulationPoint(int v) {
+    return nodes[v] >= nbBlocks();
+  }
+
+  /**
+   * Restricts a view of the maze to the blocks on the tree path between two cells, which contain every shortest path
+   * between them.
+   * @param source a cell
+   * @param destination another cell
+   * @param view a view of the maze, whose previous cells are excluded
+   * @return whether source and destination are connected; if not, the cells of the view are unspecified
+   */
+  public boolean restrict(int source, int destination, MaskedGridGraph view) {
+    view.clear();
+    if (source == destination) {
+      view.include(source);
+      return true;
+    }
+
+    int u = nodes[source];
+    int v = nodes[destination];
+    if (u == NONE || v == NONE)
+      return false;
+
+    // Climbing from both ends to their lowest common ancestor
+    while (nodeDepths[u] > nodeDepths[v]) {
+      include(u, view);
+      u = nodeParents[u];
+    }
+    while (nodeDepths[v] > nodeDepths[u]) {
+      include(v, view);
+      v = nodeParents[v];
+    }
+    while (u != v) {
+      // Two roots: different components
+      if (nodeParents[u] == NONE)
+        return false;
+
+      include(u, view);
+      include(v, view);
+      u = nodeParents[u];
+      v = nodeParents[v];
+    }
+    include(u, view);
+    return true;
+  }
+
+  // Helpers
+
+  private void include(int node, MaskedGridGraph view) {
+    if (node >= nbBlocks()) {
+      view.include(articulationCells[node - nbBlocks()]);
+      return;
+    }
+
+    for (int i = blockFirst[node]; i < blockFirst[node + 1]; ++i)
+      view.include(blockCells[i]);
+  }
+
+  /**
+   * Tarjan's algorithm and the rooting of the block-cut tree.
+   */
+  private static final class Builder {
+    private final GridGraph2D grid;
+    private final int n;
+
+    /** Adjacency of the maze, in compressed rows */
+    private final int[] adjacencyFirst;
+    private final int[] adjacency;
+
+    /** Blocks found so far, in compressed rows */
+    private int[] blockFirst;
+    private int[] blockCells;
+    private int nbBlocks = 0;
+    private int nbBlockCells = 0;
+
+    Builder(GridGraph2D grid) {
+      this.grid = grid;
+      this.n = grid.nbVertices();
+      this.adjacencyFirst = new int[n + 1];
+      for (int v = 0; v < n; ++v)
+        adjacencyFirst[v + 1] = adjacencyFirst[v] + Integer.bitCount(grid.neighborMask(v));
+      this.adjacency = new int[adjacencyFirst[n]];
+      int[] neighbors = new int[4];
+      for (int v = 0; v < n; ++v) {
+        int nbNeighbors = grid.neighbors(v, neighbors);
+        System.arraycopy(neighbors, 0, adjacency, adjacencyFirst[v], nbNeighbors);
+      }
+
+      this.blockFirst = new int[16];
+      this.blockCells = new int[Math.max(16, n)];
+    }
+
+    BlockCutTree build() {
+      findBlocks();
+
+      // Blocks of each cell, in compressed rows
+      int[] cellFirst = new int[n + 1];
+      for (int i = 0; i < nbBlockCells; ++i)
+        ++cellFirst[blockCells[i] + 1];
+      for (int v = 0; v < n; ++v)
+        cellFirst[v + 1] += cellFirst[v];
+      int[] cellBlocks = new int[nbBlockCells];
+      int[] next = Arrays.copyOf(cellFirst, n);
+      for (int b = 0; b < nbBlocks; ++b)
+        for (int i = blockFirst[b]; i < blockFirst[b + 1]; ++i)
+          cellBlocks[next[blockCells[i]]++] = b;
+
+      // Node of each cell, articulation points being in several blocks
+      int[] nodes = new int[n];
+      int nbArticulations = 0;
+      for (int v = 0; v < n; ++v) {
+        int count = cellFirst[v + 1] - cellFirst[v];
+        if (count == 0)
+          nodes[v] = NONE;
+        else if (count == 1)
+          nodes[v] = cellBlocks[cellFirst[v]];
+        else
+          nodes[v] = nbBlocks + nbArticulations++;
+      }
+      int[] articulationCells = new int[nbArticulations];
+      for (int v = 0; v < n; ++v)
+        if (nodes[v] >= nbBlocks) articulationCells[nodes[v] - nbBlocks] = v;
+
+      // Rooting each tree of the forest by a breadth-first traversal
+      int nbNodes = nbBlocks + nbArticulations;
+      int[] parents = new int[nbNodes];
+      int[] depths = new int[nbNodes];
+      boolean[] visited = new boolean[nbNodes];
+      int[] queue = new int[nbNodes];
+      for (int root = 0; root < nbBlocks; ++root) {
+        if (visited[root]) continue;
+
+        visited[root] = true;
+        parents[root] = NONE;
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = root;
+        while (head < tail) {
+          int node = queue[head++];
+          if (node < nbBlocks) {
+            // A block is linked to its articulation points
+            for (int i = blockFirst[node]; i < blockFirst[node + 1]; ++i) {
+              int child = nodes[blockCells[i]];
+              if (child >= nbBlocks && !visited[child]) {
+                visited[child] = true;
+                parents[child] = node;
+                depths[child] = depths[node] + 1;
+                queue[tail++] = child;
+              }
+            }
+          } else {
+            // An articulation point to its blocks
+            int v = articulationCells[node - nbBlocks];
+            for (int i = cellFirst[v]; i < cellFirst[v + 1]; ++i) {
+              int child = cellBlocks[i];
+              if (!visited[child]) {
+                visited[child] = true;
+                parents[child] = node;
+                depths[child] = depths[node] + 1;
+                queue[tail++] = child;
+              }
+            }
+          }
+        }
+      }
+
+      return new BlockCutTree(grid, Arrays.copyOf(blockFirst, nbBlocks + 1), Arrays.copyOf(blockCells, nbBlockCells),
+          articulationCells, nodes, parents, depths);
+    }
+
+    /**
+     * Tarjan's algorithm with explicit stacks: a block is complete when the search leaves a child whose subtree has
+     * no edge above its parent.
+     */
+    private void findBlocks() {
+      int[] discovery = new int[n];
+      int[] low = new int[n];
+      int[] parents = new int[n];
+      int[] positions = new int[n];
+      int[] searchStack = new int[n];
+      int[] cellStack = new int[n];
+      int time = 0;
+
+      for (int root = 0; root < n; ++root) {
+        if (discovery[root] != 0 || adjacencyFirst[root] == adjacencyFirst[root + 1]) continue;
+
+        int searchTop = 0;
+        int cellTop = 0;
+        discovery[root] = low[root] = ++time;
+        parents[root] = NONE;
+        positions[root] = adjacencyFirst[root];
+        searchStack[searchTop++] = root;
+        cellStack[cellTop++] = root;
+
+        while (searchTop > 0) {
+          int v = searchStack[searchTop - 1];
+          if (positions[v] < adjacencyFirst[v + 1]) {
+            int w = adjacency[positions[v]++];
+            if (discovery[w] == 0) {
+              discovery[w] = low[w] = ++time;
+              parents[w] = v;
+              positions[w] = adjacencyFirst[w];
+              searchStack[searchTop++] = w;
+              cellStack[cellTop++] = w;
+            } else if (w != parents[v]) {
+              low[v] = Math.min(low[v], discovery[w]);
+            }
+            continue;
+          }
+
+          // Leaving v
+          --searchTop;
+          if (searchTop == 0) continue;
+
+          int parent = searchStack[searchTop - 1];
+          low[parent] = Math.min(low[parent], low[v]);
+          if (low[v] >= discovery[parent]) {
+            // The subtree of v and its parent form a block
+            int start = nbBlockCells;
+            int w;
+            do {
+              w = cellStack[--cellTop];
+              addCell(w);
+            } while (w != v);
+            addCell(parent);
+            endBlock(start);
+          }
+        }
+      }
+    }
+
+    private void addCell(int v) {
+      if (nbBlockCells == blockCells.length)
+        blockCells = Arrays.copyOf(blockCells, 2 * blockCells.length);
+      blockCells[nbBlockCells++] = v;
+    }
+
+    private void endBlock(int start) {
+      if (nbBlocks + 2 > blockFirst.length)
+        blockFirst = Arrays.copyOf(blockFirst, 2 * blockFirst.length);
+      blockFirst[nbBlocks] = start;
+      blockFirst[++nbBlocks] = nbBlockCells;
+    }
+  }
+}
@@ -0,0 +1,120 @@
+package ch.heig.gre.groupQ;
+
+import ch.heig.gre.graph.GridGraph2D;
+import ch.heig.gre.graph.PositiveWeightFunction;
+import ch.heig.gre.graph.VertexLabelling;
+import ch.heig.gre.maze.BucketQueue;
+import ch.heig.gre.maze.GridMazeSolver;
+import ch.heig.gre.maze.SolverWorkspace;
+
+import java.util.Collections;
+
+/**
+ * A* (or Dijkstra) on a monotone bucket queue, i.e. Dial's algorithm using the estimated total costs as keys.
+ *
+ * Edge weights being small bounded integers, the estimated total cost of a discovered vertex exceeds the one of the
+ * vertex being treated by at most the largest weight plus the heuristic slope. A circular array of that many buckets
+ * replaces the heap, making every queue operation constant time. It requires
+ * {@link PositiveWeightFunction#maxWeight()} to be known and small, otherwise the search falls back to {@link AStar}.
+ */
+public final class BucketAStar implements GridMazeSolver {
+  /** Largest span of the bucket queue, beyond which its buckets would outweigh the grid (2^21 buckets, 8 MB) */
+  static final int MAX_SPAN = 1 << 20;
+
+  // Regular A*, providing the heuristic and used when weights are not bounded
+  private final AStar aStar;
+
+  public BucketAStar(AStar.Heuristic heuristic) {
+    this(heuristic, 1);
+  }
+
+  public BucketAStar(AStar.Heuristic heuristic, int kManhattan) {
+    this.aStar = new AStar(heuristic, kManhattan);
+  }
+
+  public BucketAStar(LandmarkTable landmarks) {
+    this.aStar = new AStar(landmarks);
+  }
+
+  @Override
+  public Result solve(GridGraph2D grid,
+                      PositiveWeightFunction weights,
+                      int source,
+                      int destination,
+                      VertexLabelling<Boolean> processed) {
+    return solve(grid, weights, source, destination, processed, new SolverWorkspace());
+  }
+
+  @Override
+  public Result solve(GridGraph2D grid,
+                      PositiveWeightFunction weights,
+                      int source,
+                      int destination,
+                      VertexLabelling<Boolean> processed,
+                      SolverWorkspace workspace) {
+    int minWeight = weights.minWeight();
+    int slope = aStar.heuristicSlope(weights);
+
+    // Without an upper bound (or with a large one), the buckets would cost more than the heap they replace
+    long span = (long) weights.maxWeight() + slope;
+    if (span > MAX_SPAN)
+      return aStar.solve(grid, weights, source, destination, processed, workspace);
+
+    // Total number of vertex treated
+    int treated = 0;
+
+    AStar.HeuristicFunction heuristicFunction = aStar.heuristicFunction();
+    int width = grid.width();
+    int destinationX = destination % width;
+    int destinationY = destination / width;
+
+    workspace.reset(grid.nbVertices());
+    BucketQueue prioQueue = workspace.bucketQueue((int) span);
+    int[] neighbors = new int[4];
+
+    workspace.discover(source, heuristicFunction.get(source % width, source / width, destinationX, destinationY, minWeight));
+    workspace.update(source, 0, SolverWorkspace.NO_PREDECESSOR);
+    prioQueue.insert(source, workspace.heuristic(source));
+
+    while (!prioQueue.isEmpty()) {
+      // Keys are monotone: nothing lower than the current key can be inserted anymore
+      int currentKey = prioQueue.peekKey();
+      int currentVertex = prioQueue.poll();
+      processed.setLabel(currentVertex, true);
+
+      if (currentVertex == destination)
+        return AStar.buildResult(workspace, source, destination, treated);
+
+      ++treated;
+
+      int deltaI = workspace.cost(currentVertex);
+
+      int nbNeighbors = grid.neighbors(currentVertex, neighbors);
+
+      for (int i = 0; i < nbNeighbors; ++i) {
+
+        int neighborJ = neighbors[i];
+        if (!workspace.isDiscovered(neighborJ))
+          workspace.discover(neighborJ, heuristicFunction.get(neighborJ % width, neighborJ / width, destinationX, destinationY, minWeight));
+
+        int newDeltaJ = deltaI + weights.get(currentVertex, neighborJ);
+
+        if (newDeltaJ < workspace.cost(neighborJ)) {
+          workspace.update(neighborJ, newDeltaJ, currentVertex);
+
+          // An inconsistent heuristic (K-Manhattan) may give a key lower than the current one, the vertex is then
+          // treated as soon as possible
+          int priority = Math.max(newDeltaJ + workspace.heuristic(neighborJ), currentKey);
+
+          if (prioQueue.contains(neighborJ)) {
+            prioQueue.decreaseKey(neighborJ, priority);
+          } else {
+            prioQueue.insert(neighborJ, priority);
+          }
+        }
+      }
+    }
+
+    return new Result(Collections.emptyList(), 0, 0);
+  }
+}
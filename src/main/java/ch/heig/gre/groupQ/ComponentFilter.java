@@ -0,0 +1,52 @@
+package ch.heig.gre.groupQ;
+
+import ch.heig.gre.graph.GridGraph2D;
+import ch.heig.gre.graph.PositiveWeightFunction;
+import ch.heig.gre.graph.VertexLabelling;
+import ch.heig.gre.maze.GridMazeSolver;
+import ch.heig.gre.maze.SolverWorkspace;
+
+import java.util.Collections;
+
+/**
+ * Solver rejecting the queries between two disconnected cells in constant time, thanks to a {@link ComponentIndex},
+ * before handing the others to another solver. Without it, a solver only finds out that there is no path once it has
+ * explored the whole component of the source.
+ *
+ * Queries on another grid than the one of the index are handed to the solver unchecked.
+ */
+public final class ComponentFilter implements GridMazeSolver {
+  private final ComponentIndex index;
+  private final GridMazeSolver solver;
+
+  /**
+   * @param index connected components of the maze
+   * @param solver solver of the queries between connected cells
+   */
+  public ComponentFilter(ComponentIndex index, GridMazeSolver solver) {
+    this.index = index;
+    this.solver = solver;
+  }
+
+  @Override
+  public Result solve(GridGraph2D grid,
+                      PositiveWeightFunction weights,
+                      int source,
+                      int destination,
+                      VertexLabelling<Boolean> processed) {
+    return solve(grid, weights, source, destination, processed, new SolverWorkspace());
+  }
+
+  @Override
+  public Result solve(GridGraph2D grid,
+                      PositiveWeightFunction weights,
+                      int source,
+                      int destination,
+                      VertexLabelling<Boolean> processed,
+                      SolverWorkspace workspace) {
+    if (grid == index.grid() && !index.connected(source, destination))
+      return new Result(Collections.emptyList(), 0, 0);
+
+    return solver.solve(grid, weights, source, destination, processed, workspace);
+  }
+}
@@ -0,0 +1,163 @@
+package ch.heig.gre.groupQ;
+
+import ch.heig.gre.graph.GraphObserver;
+import ch.heig.gre.graph.GridGraph2D;
+import ch.heig.gre.graph.ObservableGraph;
+
+/**
+ * Connected components of a maze, telling whether two cells are connected in (amortized) constant time.
+ *
+ * The components are kept in a union-find structure (union by size, path halving), built from the edges of the maze.
+ * As a {@link GraphObserver}, the index merges the components of an added edge incrementally. A removed edge may split a
+ * component, which a union-find can't do: the index is then rebuilt from the maze on the next query.
+ *
+ * An index must be used by one thread at a time, and must be notified of every change of the maze.
+ */
+public final class ComponentIndex implements GraphObserver {
+  private final GridGraph2D grid;
+
+  /** Parent of each cell in its tree, the root of a tree standing for the component */
+  private final int[] parents;
+
+  /** Number of cells of the component of each root */
+  private final int[] sizes;
+
+  private int nbComponents;
+
+  // An edge was removed since the last build
+  private boolean stale = false;
+
+  private ComponentIndex(GridGraph2D grid) {
+    this.grid = grid;
+    this.parents = new int[grid.nbVertices()];
+    this.sizes = new int[grid.nbVertices()];
+    rebuild();
+  }
+
+  /**
+   * Builds the index of a maze.
+   * @param grid the maze
+   * @return the index
+   */
+  public static ComponentIndex build(GridGraph2D grid) {
+    return new ComponentIndex(grid);
+  }
+
+  /**
+   * Builds the index of a maze, notified of its changes.
+   * @param grid the maze
+   * @param maze the maze, as an observable graph
+   * @return the subscribed index
+   */
+  public static ComponentIndex subscribedTo(GridGraph2D grid, ObservableGraph maze) {
+    ComponentIndex index = new ComponentIndex(grid);
+    maze.subscribe(index);
+    return index;
+  }
+
+  /**
+   * @return the maze of the index
+   */
+  public GridGraph2D grid() {
+    return grid;
+  }
+
+  /**
+   * @param u a cell
+   * @param v another cell
+   * @return whether a path connects u and v
+   */
+  public boolean connected(int u, int v) {
+    refresh();
+    return find(u) == find(v);
+  }
+
+  /**
+   * @param v a cell
+   * @return the representative of the component of v, the same for all the cells of the component until the maze
+   * changes
+   */
+  public int component(int v) {
+    refresh();
+    return find(v);
+  }
+
+  /**
+   * @param v a cell
+   * @return the number of cells of the component of v
+   */
+  public int componentSize(int v) {
+    refresh();
+    return sizes[find(v)];
+  }
+
+  /**
+   * @return the number of connected components
+   */
+  public int nbComponents() {
+    refresh();
+    return nbComponents;
+  }
+
+  @Override
+  public void onEdgeAdded(int u, int v) {
+    if (!stale)
+      union(u, v);
+  }
+
+  @Override
+  public void onEdgeRemoved(int u, int v) {
+    stale = true;
+  }
+
+  // Helpers
+
+  private void refresh() {
+    if (stale)
+      rebuild();
+  }
+
+  private void rebuild() {
+    int n = parents.length;
+    for (int v = 0; v < n; ++v) {
+      parents[v] = v;
+      sizes[v] = 1;
+    }
+    nbComponents = n;
+
+    // Each edge once, from its lowest end: right and down
+    for (int v = 0; v < n; ++v) {
+      int mask = grid.neighborMask(v);
+      if ((mask & GridGraph2D.RIGHT) != 0)
+        union(v, v + 1);
+      if ((mask & GridGraph2D.DOWN) != 0)
+        union(v, v + grid.width());
+    }
+    stale = false;
+  }
+
+  private int find(int v) {
+    while (parents[v] != v) {
+      // Path halving: every other cell of the path now points to its grandparent
+      parents[v] = parents[parents[v]];
+      v = parents[v];
+    }
+    return v;
+  }
+
+  private void union(int u, int v) {
+    int a = find(u);
+    int b = find(v);
+    if (a == b) return;
+
+    // The smallest tree goes under the root of the largest
+    if (sizes[a] < sizes[b]) {
+      int tmp = a;
+      a = b;
+      b = tmp;
+    }
+    parents[b] = a;
+    sizes[a] += sizes[b];
+    --nbComponents;
+  }
+}
@@ -0,0 +1,637 @@
+package ch.heig.gre.groupQ;
+
+import ch.heig.gre.graph.GridGraph2D;
+import ch.heig.gre.graph.PositiveWeightFunction;
+import ch.heig.gre.graph.VertexLabelling;
+import ch.heig.gre.maze.DistanceTableSolver;
+import ch.heig.gre.maze.GridMazeSolver;
+import ch.heig.gre.maze.IndexedHeap;
+import ch.heig.gre.maze.SolverWorkspace;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Contraction hierarchy of a static maze, answering many shortest path queries after a single preprocessing.
+ *
+ * Vertices are contracted one after the other, in the order given by their edge difference (shortcuts needed minus
+ * edges removed), their number of contracted neighbors and their level in the hierarchy, the edge difference being
+ * lazily updated. Contracting a vertex adds a shortcut between two of its remaining neighbors when no witness path
+ * avoiding it is found by a bounded local search. A query is then a bidirectional Dijkstra only following edges
+ * towards higher ranked vertices (with stall on demand), and shortcuts are unpacked into maze cells afterwards.
+ *
+ * Distance tables use the bucket method: an upward search from each target leaves its distance in a bucket at every
+ * vertex it settles, then an upward search from each source scans the buckets of the vertices it settles, the highest
+ * vertex of a shortest path being settled by both. Each search is done once, in parallel, whatever the size of the
+ * table.
+ *
+ * Edge weights must be symmetric (the maze is undirected), and the maze must not change once the hierarchy is built.
+ * As a {@link GridMazeSolver}, the grid and weights given to {@link #solve} must be those of the build.
+ */
+public final class ContractionHierarchy implements GridMazeSolver, DistanceTableSolver {
+  /** Number of vertices a witness search may settle before giving up (and adding the shortcut) */
+  private static final int WITNESS_SETTLED_LIMIT = 500;
+
+  /** Weights of the edge difference and of the number of contracted neighbors in the contraction priority */
+  private static final int EDGE_DIFFERENCE_FACTOR = 4;
+  private static final int CONTRACTED_NEIGHBORS_FACTOR = 2;
+
+  /** Middle vertex of an original edge, which is not a shortcut */
+  private static final int NO_MIDDLE = -1;
+
+  private final int nbVertices;
+
+  /** Contraction order of each vertex */
+  private final int[] ranks;
+
+  /** Edges towards higher ranked vertices, in compressed rows: those of v are in [upFirst[v], upFirst[v + 1][ */
+  private final int[] upFirst;
+  private final int[] upTarget;
+  private final int[] upWeight;
+  private final int[] upMiddle;
+
+  // Upward searches of the distance tables, one workspace per thread
+  private final ThreadLocal<SolverWorkspace> tableWorkspaces = ThreadLocal.withInitial(SolverWorkspace::new);
+
+  private ContractionHierarchy(int nbVertices, int[] ranks, int[] upFirst, int[] upTarget, int[] upWeight, int[] upMiddle) {
+    this.nbVertices = nbVertices;
+    this.ranks = ranks;
+    this.upFirst = upFirst;
+    this.upTarget = upTarget;
+    this.upWeight = upWeight;
+    this.upMiddle = upMiddle;
+  }
+
+  /**
+   * Builds the contraction hierarchy of a maze.
+   * @param grid the maze
+   * @param weights symmetric weight function of the maze
+   * @return the hierarchy
+   */
+  public static ContractionHierarchy build(GridGraph2D grid, PositiveWeightFunction weights) {
+    return new Builder(grid, weights).build();
+  }
+
+  /**
+   * @return number of edges of the hierarchy (original edges and shortcuts)
+   */
+  public int nbEdges() {
+    return upTarget.length;
+  }
+
+  @Override
+  public Result solve(GridGraph2D grid,
+                      PositiveWeightFunction weights,
+                      int source,
+                      int destination,
+                      VertexLabelling<Boolean> processed) {
+    return solve(grid, weights, source, destination, processed, new SolverWorkspace());
+  }
+
+  @Override
+  public Result solve(GridGraph2D grid,
+                      PositiveWeightFunction weights,
+                      int source,
+                      int destination,
+                      VertexLabelling<Boolean> processed,
+                      SolverWorkspace workspace) {
+    if (grid.nbVertices() != nbVertices)
+      throw new IllegalArgumentException("The hierarchy was built on a grid of " + nbVertices + " vertices");
+
+    return query(source, destination, processed, workspace);
+  }
+
+  /**
+   * Shortest path query.
+   * @param source source vertex
+   * @param destination destination vertex
+   * @param processed labelling marking the vertices settled by either search
+   * @param workspace workspace of the query
+   * @return the path, unpacked into maze cells
+   */
+  public Result query(int source, int destination, VertexLabelling<Boolean> processed, SolverWorkspace workspace) {
+    SolverWorkspace forward = workspace;
+    SolverWorkspace backward = workspace.backward();
+    forward.reset(nbVertices);
+    backward.reset(nbVertices);
+
+    int treated = 0;
+    int bestCost = Integer.MAX_VALUE;
+    int meetingVertex = SolverWorkspace.NO_PREDECESSOR;
+
+    for (SolverWorkspace side : new SolverWorkspace[]{forward, backward}) {
+      int start = side == forward ? source : destination;
+      side.discover(start, 0);
+      side.update(start, 0, SolverWorkspace.NO_PREDECESSOR);
+      side.queue().insert(start, 0);
+    }
+
+    while (!forward.queue().isEmpty() || !backward.queue().isEmpty()) {
+      // Lowest key of both searches
+      boolean isForward = backward.queue().isEmpty()
+          || !forward.queue().isEmpty() && forward.queue().peekKey() <= backward.queue().peekKey();
+      SolverWorkspace current = isForward ? forward : backward;
+      SolverWorkspace opposite = isForward ? backward : forward;
+
+      // Both searches only go upwards, none can improve the best path anymore
+      if (current.queue().peekKey() >= bestCost)
+        break;
+
+      int v = current.queue().poll();
+      processed.setLabel(v, true);
+      ++treated;
+
+      int cost = current.cost(v);
+
+      // Stall on demand: a higher ranked vertex already reached gives a shorter path to v (through a downward edge,
+      // the search can't find), so no shortest path goes up from v
+      boolean stalled = false;
+      for (int e = upFirst[v]; e < upFirst[v + 1] && !stalled; ++e) {
+        int w = upTarget[e];
+        stalled = current.cost(w) != Integer.MAX_VALUE && current.cost(w) + upWeight[e] < cost;
+      }
+      if (stalled) continue;
+
+      for (int e = upFirst[v]; e < upFirst[v + 1]; ++e) {
+        int w = upTarget[e];
+        int newCost = cost + upWeight[e];
+
+        if (!current.isDiscovered(w))
+          current.discover(w, 0);
+
+        if (newCost < current.cost(w)) {
+          current.update(w, newCost, v);
+          IndexedHeap queue = current.queue();
+          if (queue.contains(w)) {
+            queue.decreaseKey(w, newCost);
+          } else {
+            queue.insert(w, newCost);
+          }
+
+          int oppositeCost = opposite.cost(w);
+          if (oppositeCost != Integer.MAX_VALUE && newCost + oppositeCost < bestCost) {
+            bestCost = newCost + oppositeCost;
+            meetingVertex = w;
+          }
+        }
+      }
+
+      // The start vertices themselves may be the meeting vertex
+      int oppositeCost = opposite.cost(v);
+      if (oppositeCost != Integer.MAX_VALUE && cost + oppositeCost < bestCost) {
+        bestCost = cost + oppositeCost;
+        meetingVertex = v;
+      }
+    }
+
+    if (meetingVertex == SolverWorkspace.NO_PREDECESSOR)
+      return new Result(Collections.emptyList(), 0, 0);
+
+    // Vertices of the hierarchy path, from the source to the destination
+    List<Integer> hierarchyPath = new ArrayList<>();
+    for (int v = meetingVertex; v != SolverWorkspace.NO_PREDECESSOR; v = forward.predecessor(v)) {
+      hierarchyPath.add(v);
+    }
+    Collections.reverse(hierarchyPath);
+    for (int v = backward.predecessor(meetingVertex); v != SolverWorkspace.NO_PREDECESSOR; v = backward.predecessor(v)) {
+      hierarchyPath.add(v);
+    }
+
+    List<Integer> path = new ArrayList<>();
+    path.add(source);
+    for (int i = 1; i < hierarchyPath.size(); ++i) {
+      unpack(hierarchyPath.get(i - 1), hierarchyPath.get(i), path);
+    }
+
+    return new Result(path, path.size(), treated);
+  }
+
+  @Override
+  public int[] distances(GridGraph2D grid, PositiveWeightFunction weights, int[] sources, int[] targets) {
+    if (grid.nbVertices() != nbVertices)
+      throw new IllegalArgumentException("The hierarchy was built on a grid of " + nbVertices + " vertices");
+
+    int m = targets.length;
+
+    // Upward search space of each target, as (vertex, cost) pairs
+    int[][] targetSpaces = IntStream.range(0, m).parallel()
+        .mapToObj(j -> upwardSearch(targets[j], tableWorkspaces.get()))
+        .toArray(int[][]::new);
+
+    // Buckets of each vertex, in compressed rows: (target column, cost) pairs
+    int[] bucketFirst = new int[nbVertices + 1];
+    for (int[] space : targetSpaces) {
+      for (int k = 0; k < space.length; k += 2)
+        ++bucketFirst[space[k] + 1];
+    }
+    for (int v = 0; v < nbVertices; ++v)
+      bucketFirst[v + 1] += bucketFirst[v];
+
+    int[] bucketColumn = new int[bucketFirst[nbVertices]];
+    int[] bucketCost = new int[bucketFirst[nbVertices]];
+    int[] next = Arrays.copyOf(bucketFirst, nbVertices);
+    for (int j = 0; j < m; ++j) {
+      int[] space = targetSpaces[j];
+      for (int k = 0; k < space.length; k += 2) {
+        int e = next[space[k]]++;
+        bucketColumn[e] = j;
+        bucketCost[e] = space[k + 1];
+      }
+    }
+
+    int[] table = new int[sources.length * m];
+    Arrays.fill(table, UNREACHABLE);
+
+    IntStream.range(0, sources.length).parallel().forEach(i -> {
+      int[] space = upwardSearch(sources[i], tableWorkspaces.get());
+      for (int k = 0; k < space.length; k += 2) {
+        int v = space[k];
+        int cost = space[k + 1];
+        for (int e = bucketFirst[v]; e < bucketFirst[v + 1]; ++e) {
+          int cell = i * m + bucketColumn[e];
+          table[cell] = Math.min(table[cell], cost + bucketCost[e]);
+        }
+      }
+    });
+
+    return table;
+  }
+
+  // Helpers
+
+  /**
+   * Dijkstra only following edges towards higher ranked vertices, until no vertex is left.
+   * @return the settled vertices which are not stalled, with their cost: (vertex, cost) pairs
+   */
+  private int[] upwardSearch(int start, SolverWorkspace workspace) {
+    workspace.reset(nbVertices);
+    IndexedHeap queue = workspace.queue();
+    workspace.discover(start, 0);
+    workspace.update(start, 0, SolverWorkspace.NO_PREDECESSOR);
+    queue.insert(start, 0);
+
+    int[] space = new int[64];
+    int size = 0;
+    while (!queue.isEmpty()) {
+      int v = queue.poll();
+      int cost = workspace.cost(v);
+
+      // Stall on demand, as in the queries
+      boolean stalled = false;
+      for (int e = upFirst[v]; e < upFirst[v + 1] && !stalled; ++e) {
+        int w = upTarget[e];
+        stalled = workspace.cost(w) != Integer.MAX_VALUE && workspace.cost(w) + upWeight[e] < cost;
+      }
+      if (stalled) continue;
+
+      if (size == space.length)
+        space = Arrays.copyOf(space, 2 * size);
+      space[size++] = v;
+      space[size++] = cost;
+
+      for (int e = upFirst[v]; e < upFirst[v + 1]; ++e) {
+        int w = upTarget[e];
+        int newCost = cost + upWeight[e];
+
+        if (!workspace.isDiscovered(w))
+          workspace.discover(w, 0);
+
+        if (newCost < workspace.cost(w)) {
+          workspace.update(w, newCost, v);
+          if (queue.contains(w))
+            queue.decreaseKey(w, newCost);
+          else
+            queue.insert(w, newCost);
+        }
+      }
+    }
+
+    return Arrays.copyOf(space, size);
+  }
+
+  /**
+   * Appends to the path the maze cells of the hierarchy edge {u, v}, u excluded.
+   */
+  private void unpack(int u, int v, List<Integer> path) {
+    // Explicit stack of edges, shortcuts may be deeply nested
+    int[] stack = new int[16];
+    int size = 0;
+    stack[size++] = u;
+    stack[size++] = v;
+
+    while (size > 0) {
+      int b = stack[--size];
+      int a = stack[--size];
+      int middle = upMiddle[edge(a, b)];
+
+      if (middle == NO_MIDDLE) {
+        path.add(b);
+        continue;
+      }
+
+      if (size + 4 > stack.length)
+        stack = Arrays.copyOf(stack, 2 * stack.length);
+
+      // {a, middle} is unpacked first
+      stack[size++] = middle;
+      stack[size++] = b;
+      stack[size++] = a;
+      stack[size++] = middle;
+    }
+  }
+
+  /**
+   * @return the index of the hierarchy edge {u, v}, stored with the lowest ranked of both vertices
+   */
+  private int edge(int u, int v) {
+    int low = ranks[u] < ranks[v] ? u : v;
+    int high = low == u ? v : u;
+
+    for (int e = upFirst[low]; e < upFirst[low + 1]; ++e) {
+      if (upTarget[e] == high)
+        return e;
+    }
+    throw new IllegalStateException("No edge {" + u + "," + v + "} in the hierarchy");
+  }
+
+  /**
+   * Contraction state, dropped once the hierarchy is built.
+   */
+  private static final class Builder {
+    private final int nbVertices;
+
+    // Adjacency lists of both original edges and shortcuts, as linked lists of arcs (one per direction)
+    private final int[] firstArc;
+    private int[] arcTarget = new int[16];
+    private int[] arcWeight = new int[16];
+    private int[] arcMiddle = new int[16];
+    private int[] arcNext = new int[16];
+    private int nbArcs = 0;
+
+    private final boolean[] contracted;
+    private final boolean[] isTarget;
+    private final int[] contractedNeighbors;
+    private final int[] levels;
+    private final int[] ranks;
+
+    // Witness searches, run on the remaining graph
+    private final SolverWorkspace witness = new SolverWorkspace();
+
+    // Remaining neighbors of the vertex being contracted, and the weight of the edge to them
+    private int[] neighbors = new int[16];
+    private int[] neighborWeights = new int[16];
+    private int nbNeighbors;
+
+    // Shortcuts needed to contract the vertex, as (endpoint, endpoint, weight) triples
+    private int[] shortcuts = new int[48];
+    private int nbShortcuts;
+
+    Builder(GridGraph2D grid, PositiveWeightFunction weights) {
+      this.nbVertices = grid.nbVertices();
+      this.firstArc = new int[nbVertices];
+      this.contracted = new boolean[nbVertices];
+      this.isTarget = new boolean[nbVertices];
+      this.contractedNeighbors = new int[nbVertices];
+      this.levels = new int[nbVertices];
+      this.ranks = new int[nbVertices];
+      Arrays.fill(firstArc, -1);
+
+      int[] neighbors = new int[4];
+      for (int u = 0; u < nbVertices; ++u) {
+        int nbNeighbors = grid.neighbors(u, neighbors);
+        for (int i = 0; i < nbNeighbors; ++i) {
+          int v = neighbors[i];
+          if (u < v)
+            addEdge(u, v, weights.get(u, v), NO_MIDDLE);
+        }
+      }
+    }
+
+    ContractionHierarchy build() {
+      IndexedHeap order = new IndexedHeap(nbVertices);
+      for (int v = 0; v < nbVertices; ++v) {
+        order.insert(v, priority(v));
+      }
+
+      int rank = 0;
+      while (!order.isEmpty()) {
+        int v = order.poll();
+
+        // Lazy update: contract v only if it is still the best candidate
+        int priority = priority(v);
+        if (!order.isEmpty() && priority > order.peekKey()) {
+          order.insert(v, priority);
+          continue;
+        }
+
+        // The shortcuts found while computing its priority are still valid
+        for (int i = 0; i < nbShortcuts; ++i)
+          addEdge(shortcuts[3 * i], shortcuts[3 * i + 1], shortcuts[3 * i + 2], v);
+        contracted[v] = true;
+        ranks[v] = rank++;
+
+        // Only the terms depending on v are updated in the priority of its neighbors, their edge difference is
+        // recomputed lazily when they are polled
+        for (int i = 0; i < nbNeighbors; ++i) {
+          int u = neighbors[i];
+          int level = Math.max(levels[u], levels[v] + 1);
+          int updated = order.key(u) + CONTRACTED_NEIGHBORS_FACTOR + level - levels[u];
+          ++contractedNeighbors[u];
+          levels[u] = level;
+          order.remove(u);
+          order.insert(u, updated);
+        }
+      }
+
+      return upwardGraph();
+    }
+
+    /**
+     * Weighted edge difference, number of contracted neighbors and level, the lower the sooner the vertex is contracted.
+     * Leaves the shortcuts needed to contract v in the shortcut buffer.
+     */
+    private int priority(int v) {
+      findShortcuts(v);
+      return EDGE_DIFFERENCE_FACTOR * (nbShortcuts - nbNeighbors) + CONTRACTED_NEIGHBORS_FACTOR * contractedNeighbors[v]
+          + levels[v];
+    }
+
+    /**
+     * Lists in the shortcut buffer the shortcuts needed to contract v, and its remaining neighbors in
+     * {@link #neighbors}.
+     */
+    private void findShortcuts(int v) {
+      collectNeighbors(v);
+
+      nbShortcuts = 0;
+      for (int i = 0; i < nbNeighbors; ++i) {
+        int u = neighbors[i];
+
+        // Longest path through v a witness from u has to beat
+        int maxCost = 0;
+        for (int j = i + 1; j < nbNeighbors; ++j)
+          maxCost = Math.max(maxCost, neighborWeights[i] + neighborWeights[j]);
+        if (maxCost == 0) continue;
+
+        witnessSearch(u, v, maxCost, i + 1);
+
+        for (int j = i + 1; j < nbNeighbors; ++j) {
+          int viaV = neighborWeights[i] + neighborWeights[j];
+          if (witness.cost(neighbors[j]) > viaV) {
+            if (3 * nbShortcuts == shortcuts.length)
+              shortcuts = Arrays.copyOf(shortcuts, 2 * shortcuts.length);
+            shortcuts[3 * nbShortcuts] = u;
+            shortcuts[3 * nbShortcuts + 1] = neighbors[j];
+            shortcuts[3 * nbShortcuts++ + 2] = viaV;
+          }
+        }
+      }
+    }
+
+    /**
+     * Bounded Dijkstra from a vertex on the remaining graph, avoiding the vertex being contracted. Stops once the
+     * neighbors from {@code firstTarget} on are settled.
+     */
+    private void witnessSearch(int source, int avoided, int maxCost, int firstTarget) {
+      for (int j = firstTarget; j < nbNeighbors; ++j)
+        isTarget[neighbors[j]] = true;
+      int targetsLeft = nbNeighbors - firstTarget;
+
+      witness.reset(nbVertices);
+      witness.discover(source, 0);
+      witness.update(source, 0, SolverWorkspace.NO_PREDECESSOR);
+      IndexedHeap queue = witness.queue();
+      queue.insert(source, 0);
+
+      int settled = 0;
+      while (!queue.isEmpty() && queue.peekKey() <= maxCost && settled++ < WITNESS_SETTLED_LIMIT) {
+        int x = queue.poll();
+        int cost = witness.cost(x);
+
+        if (isTarget[x] && --targetsLeft == 0)
+          break;
+
+        for (int a = firstArc[x]; a != -1; a = arcNext[a]) {
+          int y = arcTarget[a];
+          if (contracted[y] || y == avoided) continue;
+
+          int newCost = cost + arcWeight[a];
+          // Too long to be a witness
+          if (newCost > maxCost) continue;
+
+          if (!witness.isDiscovered(y))
+            witness.discover(y, 0);
+
+          if (newCost < witness.cost(y)) {
+            witness.update(y, newCost, x);
+            if (queue.contains(y)) {
+              queue.decreaseKey(y, newCost);
+            } else {
+              queue.insert(y, newCost);
+            }
+          }
+        }
+      }
+
+      for (int j = firstTarget; j < nbNeighbors; ++j)
+        isTarget[neighbors[j]] = false;
+    }
+
+    /**
+     * Lists the remaining neighbors of v, and unlinks its arcs towards contracted vertices on the way (they are still
+     * in the arc pool for the upward graph).
+     */
+    private void collectNeighbors(int v) {
+      nbNeighbors = 0;
+      int previous = -1;
+      for (int a = firstArc[v]; a != -1; a = arcNext[a]) {
+        if (contracted[arcTarget[a]]) {
+          if (previous == -1)
+            firstArc[v] = arcNext[a];
+          else
+            arcNext[previous] = arcNext[a];
+          continue;
+        }
+        previous = a;
+
+        if (nbNeighbors == neighbors.length) {
+          neighbors = Arrays.copyOf(neighbors, 2 * nbNeighbors);
+          neighborWeights = Arrays.copyOf(neighborWeights, 2 * nbNeighbors);
+        }
+        neighbors[nbNeighbors] = arcTarget[a];
+        neighborWeights[nbNeighbors++] = arcWeight[a];
+      }
+    }
+
+    /**
+     * Adds the edge {u, v}, or lowers the weight of the existing one.
+     */
+    private void addEdge(int u, int v, int weight, int middle) {
+      for (int a = firstArc[u]; a != -1; a = arcNext[a]) {
+        if (arcTarget[a] == v) {
+          if (weight < arcWeight[a]) {
+            arcWeight[a] = weight;
+            arcMiddle[a] = middle;
+            // Arcs are added in pairs, the opposite one follows or precedes
+            int opposite = a ^ 1;
+            arcWeight[opposite] = weight;
+            arcMiddle[opposite] = middle;
+          }
+          return;
+        }
+      }
+
+      addArc(u, v, weight, middle);
+      addArc(v, u, weight, middle);
+    }
+
+    private void addArc(int u, int v, int weight, int middle) {
+      if (nbArcs == arcTarget.length) {
+        arcTarget = Arrays.copyOf(arcTarget, 2 * nbArcs);
+        arcWeight = Arrays.copyOf(arcWeight, 2 * nbArcs);
+        arcMiddle = Arrays.copyOf(arcMiddle, 2 * nbArcs);
+        arcNext = Arrays.copyOf(arcNext, 2 * nbArcs);
+      }
+
+      arcTarget[nbArcs] = v;
+      arcWeight[nbArcs] = weight;
+      arcMiddle[nbArcs] = middle;
+      arcNext[nbArcs] = firstArc[u];
+      firstArc[u] = nbArcs++;
+    }
+
+    /**
+     * Keeps, for each vertex, the arcs towards higher ranked vertices.
+     */
+    private ContractionHierarchy upwardGraph() {
+      int[] upFirst = new int[nbVertices + 1];
+      for (int a = 0; a < nbArcs; ++a) {
+        // The source of an arc is the target of its opposite
+        int from = arcTarget[a ^ 1];
+        if (ranks[arcTarget[a]] > ranks[from])
+          ++upFirst[from + 1];
+      }
+      for (int v = 0; v < nbVertices; ++v)
+        upFirst[v + 1] += upFirst[v];
+
+      int[] next = Arrays.copyOf(upFirst, nbVertices);
+      int[] upTarget = new int[upFirst[nbVertices]];
+      int[] upWeight = new int[upTarget.length];
+      int[] upMiddle = new int[upTarget.length];
+      for (int a = 0; a < nbArcs; ++a) {
+        int from = arcTarget[a ^ 1];
+        if (ranks[arcTarget[a]] > ranks[from]) {
+          int e = next[from]++;
+          upTarget[e] = arcTarget[a];
+          upWeight[e] = arcWeight[a];
+          upMiddle[e] = arcMiddle[a];
+        }
+      }
+
+      return new ContractionHierarchy(nbVertices, ranks, upFirst, upTarget, upWeight, upMiddle);
+    }
+  }
+}
@@ -0,0 +1,465 @@
+package ch.heig.gre.groupQ;
+
+import ch.heig.gre.graph.GridGraph2D;
+import ch.heig.gre.graph.PositiveWeightFunction;
+import ch.heig.gre.graph.VertexLabelling;
+import ch.heig.gre.maze.GridMazeSolver;
+import ch.heig.gre.maze.IndexedHeap;
+import ch.heig.gre.maze.SolverWorkspace;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Maze reduced to its junctions and dead ends, the corridors of degree 2 cells between them being contracted into
+ * single weighted arcs.
+ *
+ * Every cell of degree other than 2 is a node (a cycle without any junction gets one of its cells as node). Each
+ * corridor between two nodes keeps its cells in order, and gives an arc in each direction weighing the sum of its edges
+ * (weights need not be symmetric). A query is an A* on the reduced graph with the Manhattan distance: a source inside a
+ * corridor starts from both ends of its corridor, a destination inside a corridor is reached from both ends of its
+ * corridor, and a path staying in the corridor of both is also considered. The path is then unpacked into maze cells.
+ *
+ * The maze and weights must not change once the graph is built, and the grid and weights given to {@link #solve} must
+ * be those of the build. The treatments of a query are the nodes it treats.
+ */
+public final class CorridorGraph implements GridMazeSolver {
+  /** Cell which is not a node, or which is not in a corridor */
+  private static final int NONE = -1;
+
+  /** Predecessors of the nodes reached from a source inside a corridor, towards the start or the end of the corridor */
+  private static final int FROM_SOURCE_TOWARDS_START = -2;
+  private static final int FROM_SOURCE_TOWARDS_END = -3;
+
+  private final int width;
+  private final int nbVertices;
+
+  /** Node of each cell, or NONE */
+  private final int[] cellNodes;
+
+  /** Corridor of each cell, and position of the cell in its corridor, or NONE for nodes */
+  private final int[] cellCorridors;
+  private final int[] cellPositions;
+
+  /** Cell of each node */
+  private final int[] nodeCells;
+
+  /** Cells of each corridor, in compressed rows: those of c are in [corridorFirst[c], corridorFirst[c + 1][ */
+  private final int[] corridorFirst;
+  private final int[] corridorCells;
+
+  /** Nodes at the start and the end of each corridor */
+  private final int[] corridorStarts;
+  private final int[] corridorEnds;
+
+  /**
+   * Arcs of each node, in compressed rows: target, weight, and corridor followed (2c from its start to its end, 2c + 1
+   * the other way)
+   */
+  private final int[] arcFirst;
+  private final int[] arcTargets;
+  private final int[] arcWeights;
+  private final int[] arcCorridors;
+
+  private CorridorGraph(int width, int nbVertices, int[] cellNodes, int[] cellCorridors, int[] cellPositions,
+                        int[] nodeCells, int[] corridorFirst, int[] corridorCells, int[] corridorStarts,
+                        int[] corridorEnds, int[] arcFirst, int[] arcTargets, int[] arcWeights, int[] arcCorridors) {
+    this.width = width;
+    this.nbVertices = nbVertices;
+    this.cellNodes = cellNodes;
+    this.cellCorridors = cellCorridors;
+    this.cellPositions = cellPositions;
+    this.nodeCells = nodeCells;
+    this.corridorFirst = corridorFirst;
+    this.corridorCells = corridorCells;
+    this.corridorStarts = corridorStarts;
+    this.corridorEnds = corridorEnds;
+    this.arcFirst = arcFirst;
+    this.arcTargets = arcTargets;
+    this.arcWeights = arcWeights;
+    this.arcCorridors = arcCorridors;
+  }
+
+  /**
+   * Contracts the corridors of a maze.
+   * @param grid the maze
+   * @param weights weight function of the maze
+   * @return the reduced graph
+   */
+  public static CorridorGraph build(GridGraph2D grid, PositiveWeightFunction weights) {
+    return new Builder(grid, weights).build();
+  }
+
+  /**
+   * @return the number of nodes (junctions, dead ends and isolated cells)
+   */
+  public int nbNodes() {
+    return nodeCells.length;
+  }
+
+  /**
+   * @return the number of corridors, edges between two nodes included
+   */
+  public int nbCorridors() {
+    return corridorStarts.length;
+  }
+
+  @Override
+  public Result solve(GridGraph2D grid,
+                      PositiveWeightFunction weights,
+                      int source,
+                      int destination,
+                      VertexLabelling<Boolean> processed) {
+    return solve(grid, weights, source, destination, processed, new SolverWorkspace());
+  }
+
+  @Override
+  public Result solve(GridGraph2D grid,
+                      PositiveWeightFunction weights,
+                      int source,
+                      int destination,
+                      VertexLabelling<Boolean> processed,
+                      SolverWorkspace workspace) {
+    if (grid.nbVertices() != nbVertices)
+      throw new IllegalArgumentException("The graph was built on a grid of " + nbVertices + " vertices");
+
+    if (source == destination)
+      return new Result(new ArrayList<>(List.of(source)), 1, 0);
+
+    int minWeight = weights.minWeight();
+    int destinationX = destination % width;
+    int destinationY = destination / width;
+
+    workspace.reset(nodeCells.length);
+    IndexedHeap queue = workspace.queue();
+
+    // A source inside a corridor starts from both of its ends
+    int sourceCorridor = cellCorridors[source];
+    int sourcePosition = cellPositions[source];
+    if (sourceCorridor == NONE) {
+      seed(workspace, cellNodes[source], 0, SolverWorkspace.NO_PREDECESSOR, destinationX, destinationY, minWeight);
+    } else {
+      seed(workspace, corridorStarts[sourceCorridor], walk(weights, sourceCorridor, sourcePosition, -1),
+          FROM_SOURCE_TOWARDS_START, destinationX, destinationY, minWeight);
+      seed(workspace, corridorEnds[sourceCorridor], walk(weights, sourceCorridor, sourcePosition, length(sourceCorridor)),
+          FROM_SOURCE_TOWARDS_END, destinationX, destinationY, minWeight);
+    }
+
+    // A destination inside a corridor is reached from both of its ends
+    int destinationNode = cellNodes[destination];
+    int destinationCorridor = cellCorridors[destination];
+    int destinationPosition = cellPositions[destination];
+    int fromStart = 0;
+    int fromEnd = 0;
+    if (destinationCorridor != NONE) {
+      fromStart = walk(weights, destinationCorridor, -1, destinationPosition);
+      fromEnd = walk(weights, destinationCorridor, length(destinationCorridor), destinationPosition);
+    }
+
+    // Best path so far, the direct one when source and destination share their corridor
+    long best = Long.MAX_VALUE;
+    int bestNode = NONE;
+    boolean bestFromStart = false;
+    if (sourceCorridor != NONE && sourceCorridor == destinationCorridor)
+      best = walk(weights, sourceCorridor, sourcePosition, destinationPosition);
+
+    int treated = 0;
+    while (!queue.isEmpty() && queue.peekKey() < best) {
+      int node = queue.poll();
+      processed.setLabel(nodeCells[node], true);
+      ++treated;
+
+      int cost = workspace.cost(node);
+      if (node == destinationNode) {
+        best = cost;
+        bestNode = node;
+        break;
+      }
+
+      if (destinationCorridor != NONE) {
+        if (node == corridorStarts[destinationCorridor] && cost + fromStart < best) {
+          best = cost + fromStart;
+          bestNode = node;
+          bestFromStart = true;
+        }
+        if (node == corridorEnds[destinationCorridor] && cost + fromEnd < best) {
+          best = cost + fromEnd;
+          bestNode = node;
+          bestFromStart = false;
+        }
+      }
+
+      for (int arc = arcFirst[node]; arc < arcFirst[node + 1]; ++arc)
+        seed(workspace, arcTargets[arc], cost + arcWeights[arc], arc, destinationX, destinationY, minWeight);
+    }
+
+    if (best == Long.MAX_VALUE)
+      return new Result(Collections.emptyList(), 0, 0);
+
+    List<Integer> path = new ArrayList<>();
+    path.add(source);
+    if (bestNode == NONE) {
+      appendWalk(path, sourceCorridor, sourcePosition, destinationPosition);
+      return new Result(path, path.size(), treated);
+    }
+
+    // Arcs followed, from the destination side
+    List<Integer> arcs = new ArrayList<>();
+    int predecessor;
+    for (int node = bestNode; ; node = arcSource(predecessor)) {
+      predecessor = workspace.predecessor(node);
+      if (predecessor < 0) break;
+      arcs.add(predecessor);
+    }
+
+    if (predecessor == FROM_SOURCE_TOWARDS_START)
+      appendWalk(path, sourceCorridor, sourcePosition, -1);
+    else if (predecessor == FROM_SOURCE_TOWARDS_END)
+      appendWalk(path, sourceCorridor, sourcePosition, length(sourceCorridor));
+
+    for (int i = arcs.size() - 1; i >= 0; --i) {
+      int corridor = arcCorridors[arcs.get(i)] >> 1;
+      if ((arcCorridors[arcs.get(i)] & 1) == 0)
+        appendWalk(path, corridor, -1, length(corridor));
+      else
+        appendWalk(path, corridor, length(corridor), -1);
+    }
+
+    if (destinationCorridor != NONE)
+      appendWalk(path, destinationCorridor, bestFromStart ? -1 : length(destinationCorridor), destinationPosition);
+
+    return new Result(path, path.size(), treated);
+  }
+
+  // Helpers
+
+  /**
+   * Reaches a node at a given cost, if cheaper than its current one.
+   */
+  private void seed(SolverWorkspace workspace, int node, int cost, int predecessor,
+                    int destinationX, int destinationY, int minWeight) {
+    if (!workspace.isDiscovered(node)) {
+      int cell = nodeCells[node];
+      int h = (Math.abs(cell % width - destinationX) + Math.abs(cell / width - destinationY)) * minWeight;
+      workspace.discover(node, h);
+    }
+
+    if (cost < workspace.cost(node)) {
+      workspace.update(node, cost, predecessor);
+      IndexedHeap queue = workspace.queue();
+      int priority = cost + workspace.heuristic(node);
+      if (queue.contains(node))
+        queue.decreaseKey(node, priority);
+      else
+        queue.insert(node, priority);
+    }
+  }
+
+  private int arcSource(int arc) {
+    int corridor = arcCorridors[arc] >> 1;
+    return (arcCorridors[arc] & 1) == 0 ? corridorStarts[corridor] : corridorEnds[corridor];
+  }
+
+  private int length(int corridor) {
+    return corridorFirst[corridor + 1] - corridorFirst[corridor];
+  }
+
+  /**
+   * Cell at a position of a corridor, -1 being its start node and its length its end node.
+   */
+  private int cellAt(int corridor, int position) {
+    if (position < 0)
+      return nodeCells[corridorStarts[corridor]];
+    if (position >= length(corridor))
+      return nodeCells[corridorEnds[corridor]];
+    return corridorCells[corridorFirst[corridor] + position];
+  }
+
+  /**
+   * Cost of the walk between two positions of a corridor.
+   */
+  private int walk(PositiveWeightFunction weights, int corridor, int from, int to) {
+    int step = from < to ? 1 : -1;
+    int cost = 0;
+    for (int position = from; position != to; position += step)
+      cost += weights.get(cellAt(corridor, position), cellAt(corridor, position + step));
+    return cost;
+  }
+
+  /**
+   * Appends the cells of the walk between two positions of a corridor, the first one excluded.
+   */
+  private void appendWalk(List<Integer> path, int corridor, int from, int to) {
+    int step = from < to ? 1 : -1;
+    for (int position = from; position != to; position += step)
+      path.add(cellAt(corridor, position + step));
+  }
+
+  /**
+   * Contraction of the corridors, each one being followed once from one of its ends.
+   */
+  private static final class Builder {
+    private final GridGraph2D grid;
+    private final PositiveWeightFunction weights;
+    private final int n;
+
+    /** Adjacency of the maze, in compressed rows */
+    private final int[] adjacencyFirst;
+    private final int[] adjacency;
+
+    private final int[] cellNodes;
+    private final int[] cellCorridors;
+    private final int[] cellPositions;
+    private final int[] nodeCells;
+    private int nbNodes = 0;
+
+    /** Corridors, at most one per edge */
+    private final int[] corridorFirst;
+    private final int[] corridorCells;
+    private final int[] corridorStarts;
+    private final int[] corridorEnds;
+    private final int[] forwardWeights;
+    private final int[] backwardWeights;
+    private int nbCorridors = 0;
+    private int nbCorridorCells = 0;
+
+    Builder(GridGraph2D grid, PositiveWeightFunction weights) {
+      this.grid = grid;
+      this.weights = weights;
+      this.n = grid.nbVertices();
+
+      this.adjacencyFirst = new int[n + 1];
+      for (int v = 0; v < n; ++v)
+        adjacencyFirst[v + 1] = adjacencyFirst[v] + Integer.bitCount(grid.neighborMask(v));
+      this.adjacency = new int[adjacencyFirst[n]];
+      int[] neighbors = new int[4];
+      for (int v = 0; v < n; ++v) {
+        int nbNeighbors = grid.neighbors(v, neighbors);
+        System.arraycopy(neighbors, 0, adjacency, adjacencyFirst[v], nbNeighbors);
+      }
+
+      this.cellNodes = new int[n];
+      this.cellCorridors = new int[n];
+      this.cellPositions = new int[n];
+      this.nodeCells = new int[n];
+      Arrays.fill(cellCorridors, NONE);
+
+      int nbEdges = adjacency.length / 2;
+      this.corridorFirst = new int[nbEdges + 1];
+      this.corridorCells = new int[n];
+      this.corridorStarts = new int[nbEdges];
+      this.corridorEnds = new int[nbEdges];
+      this.forwardWeights = new int[nbEdges];
+      this.backwardWeights = new int[nbEdges];
+    }
+
+    CorridorGraph build() {
+      for (int v = 0; v < n; ++v) {
+        cellNodes[v] = NONE;
+        if (degree(v) != 2)
+          addNode(v);
+      }
+
+      for (int node = 0, nbJunctions = nbNodes; node < nbJunctions; ++node)
+        followCorridors(nodeCells[node]);
+
+      // Cycles without any junction: one of their cells becomes a node
+      for (int v = 0; v < n; ++v) {
+        if (cellNodes[v] == NONE && cellCorridors[v] == NONE) {
+          addNode(v);
+          followCorridors(v);
+        }
+      }
+
+      // Arcs in both directions, except around loops which never shorten a path
+      int[] arcFirst = new int[nbNodes + 1];
+      for (int c = 0; c < nbCorridors; ++c) {
+        if (corridorStarts[c] == corridorEnds[c]) continue;
+        ++arcFirst[corridorStarts[c] + 1];
+        ++arcFirst[corridorEnds[c] + 1];
+      }
+      for (int node = 0; node < nbNodes; ++node)
+        arcFirst[node + 1] += arcFirst[node];
+
+      int nbArcs = arcFirst[nbNodes];
+      int[] arcTargets = new int[nbArcs];
+      int[] arcWeights = new int[nbArcs];
+      int[] arcCorridors = new int[nbArcs];
+      int[] next = Arrays.copyOf(arcFirst, nbNodes);
+      for (int c = 0; c < nbCorridors; ++c) {
+        int start = corridorStarts[c];
+        int end = corridorEnds[c];
+        if (start == end) continue;
+
+        int arc = next[start]++;
+        arcTargets[arc] = end;
+        arcWeights[arc] = forwardWeights[c];
+        arcCorridors[arc] = 2 * c;
+
+        arc = next[end]++;
+        arcTargets[arc] = start;
+        arcWeights[arc] = backwardWeights[c];
+        arcCorridors[arc] = 2 * c + 1;
+      }
+
+      return new CorridorGraph(grid.width(), n, cellNodes, cellCorridors, cellPositions, Arrays.copyOf(nodeCells, nbNodes),
+          Arrays.copyOf(corridorFirst, nbCorridors + 1), Arrays.copyOf(corridorCells, nbCorridorCells),
+          Arrays.copyOf(corridorStarts, nbCorridors), Arrays.copyOf(corridorEnds, nbCorridors),
+          arcFirst, arcTargets, arcWeights, arcCorridors);
+    }
+
+    private int degree(int v) {
+      return adjacencyFirst[v + 1] - adjacencyFirst[v];
+    }
+
+    private void addNode(int v) {
+      cellNodes[v] = nbNodes;
+      nodeCells[nbNodes++] = v;
+    }
+
+    /**
+     * Follows the corridors leaving a node cell, unless already followed from their other end.
+     */
+    private void followCorridors(int u) {
+      for (int i = adjacencyFirst[u]; i < adjacencyFirst[u + 1]; ++i) {
+        int first = adjacency[i];
+        boolean followed = cellNodes[first] != NONE ? first < u : cellCorridors[first] != NONE;
+        if (!followed)
+          follow(u, first);
+      }
+    }
+
+    private void follow(int u, int first) {
+      int corridor = nbCorridors++;
+      int start = nbCorridorCells;
+      int forward = 0;
+      int backward = 0;
+
+      int previous = u;
+      int current = first;
+      while (true) {
+        forward += weights.get(previous, current);
+        backward += weights.get(current, previous);
+        if (cellNodes[current] != NONE) break;
+
+        cellCorridors[current] = corridor;
+        cellPositions[current] = nbCorridorCells - start;
+        corridorCells[nbCorridorCells++] = current;
+
+        // The other neighbor of a corridor cell
+        int i = adjacencyFirst[current];
+        int next = adjacency[i] == previous ? adjacency[i + 1] : adjacency[i];
+        previous = current;
+        current = next;
+      }
+
+      corridorStarts[corridor] = cellNodes[u];
+      corridorEnds[corridor] = cellNodes[current];
+      corridorFirst[corridor + 1] = nbCorridorCells;
+      forwardWeights[corridor] = forward;
+      backwardWeights[corridor] = backward;
+    }
+  }
+}
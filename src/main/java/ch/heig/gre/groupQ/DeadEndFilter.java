@@ -0,0 +1,226 @@
+package ch.heig.gre.groupQ;
+
+import ch.heig.gre.graph.GraphObserver;
+import ch.heig.gre.graph.GridGraph2D;
+import ch.heig.gre.graph.MaskedGridGraph;
+import ch.heig.gre.graph.ObservableGraph;
+import ch.heig.gre.graph.PositiveWeightFunction;
+import ch.heig.gre.graph.VertexLabelling;
+import ch.heig.gre.maze.GridMazeSolver;
+import ch.heig.gre.maze.SolverWorkspace;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+/**
+ * Dead-end filling: the cells which can't lie on a simple path towards a destination are pruned before the search.
+ *
+ * A cell of degree at most 1 other than the destination is a dead end: it is removed, which may turn its neighbor into
+ * a dead end, and so on. What remains is the destination, the cycles of the maze and the corridors between them. The
+ * degrees are kept in an {@link AtomicIntegerArray}, so that the grid is split into tiles whose dead ends are filled in
+ * parallel, each thread following its dead ends wherever they lead (removing a cell is a single atomic exchange).
+ *
+ * As a solver, the filter prunes the maze once per destination and runs another solver on the pruned view, so that the
+ * latter only ever treats cells of the remaining maze. Each removed cell remembers the neighbor it was still attached
+ * to: a source inside a dead end walks these exits, the only way out, up to the remaining maze. The pruning is kept
+ * for the following queries towards the same destination. As a {@link GraphObserver}, the filter drops it when the
+ * maze changes; queries on another grid drop it too. A filter must be used by one thread at a time.
+ */
+public final class DeadEndFilter implements GridMazeSolver, GraphObserver {
+  /** Side of the tiles scanned in parallel */
+  private static final int TILE = 64;
+
+  /** Degree of a removed cell, low enough to stay negative whatever the decrements */
+  private static final int REMOVED = Integer.MIN_VALUE / 2;
+
+  /** Exit of a cell which is not removed, or which was removed with its whole component */
+  private static final int NO_EXIT = -1;
+
+  private final GridMazeSolver solver;
+
+  // Pruning of the last destination, grid is null when there is none
+  private GridGraph2D grid;
+  private int destination;
+  private MaskedGridGraph view;
+  private int[] exits;
+
+  /**
+   * @param solver solver of the queries on the pruned maze
+   */
+  public DeadEndFilter(GridMazeSolver solver) {
+    this.solver = solver;
+  }
+
+  /**
+   * Creates a filter notified of the changes of a maze.
+   * @param maze the maze the filter will be used on
+   * @param solver solver of the queries on the pruned maze
+   * @return the subscribed filter
+   */
+  public static DeadEndFilter subscribedTo(ObservableGraph maze, GridMazeSolver solver) {
+    DeadEndFilter filter = new DeadEndFilter(solver);
+    maze.subscribe(filter);
+    return filter;
+  }
+
+  /**
+   * Prunes the dead ends of a maze between two cells.
+   * @param grid the maze
+   * @param source a cell
+   * @param destination another cell
+   * @return a view of the maze without the cells which can't lie on a simple path between source and destination
+   */
+  public static MaskedGridGraph prune(GridGraph2D grid, int source, int destination) {
+    MaskedGridGraph view = new MaskedGridGraph(grid);
+    fill(grid, source, destination, view, null);
+    return view;
+  }
+
+  @Override
+  public Result solve(GridGraph2D grid,
+                      PositiveWeightFunction weights,
+                      int source,
+                      int destination,
+                      VertexLabelling<Boolean> processed) {
+    return solve(grid, weights, source, destination, processed, new SolverWorkspace());
+  }
+
+  @Override
+  public Result solve(GridGraph2D grid,
+                      PositiveWeightFunction weights,
+                      int source,
+                      int destination,
+                      VertexLabelling<Boolean> processed,
+                      SolverWorkspace workspace) {
+    if (grid != this.grid || destination != this.destination) {
+      if (view == null || view.grid() != grid) {
+        view = new MaskedGridGraph(grid);
+        exits = new int[grid.nbVertices()];
+      }
+      fill(grid, destination, destination, view, exits);
+      this.grid = grid;
+      this.destination = destination;
+    }
+
+    // Out of a dead end, the only way is through the exits
+    List<Integer> prefix = new ArrayList<>();
+    int start = source;
+    while (!view.isIncluded(start)) {
+      prefix.add(start);
+      start = exits[start];
+      if (start == NO_EXIT)
+        return new Result(Collections.emptyList(), 0, 0);
+    }
+
+    Result result = solver.solve(view, weights, start, destination, processed, workspace);
+    if (prefix.isEmpty() || result.path().isEmpty())
+      return result;
+
+    prefix.addAll(result.path());
+    return new Result(prefix, prefix.size(), result.treatments());
+  }
+
+  /**
+   * Drops the pruning of the last destination.
+   */
+  public void invalidate() {
+    grid = null;
+  }
+
+  @Override
+  public void onEdgeAdded(int u, int v) {
+    invalidate();
+  }
+
+  @Override
+  public void onEdgeRemoved(int u, int v) {
+    invalidate();
+  }
+
+  // Helpers
+
+  /**
+   * Fills the dead ends of a maze, source and destination excepted, and includes the remaining cells in the view. The
+   * exit of each cell is written to exits when it is not null.
+   */
+  private static void fill(GridGraph2D grid, int source, int destination, MaskedGridGraph view, int[] exits) {
+    int width = grid.width();
+    int height = grid.height();
+    int n = grid.nbVertices();
+    int tilesPerRow = (width + TILE - 1) / TILE;
+    int nbTiles = tilesPerRow * ((height + TILE - 1) / TILE);
+
+    // Every degree must be known before any removal
+    AtomicIntegerArray degrees = new AtomicIntegerArray(n);
+    IntStream.range(0, nbTiles).parallel().forEach(tile -> {
+      for (int v : tileCells(tile, tilesPerRow, width, height))
+        degrees.set(v, Integer.bitCount(grid.neighborMask(v)));
+    });
+
+    if (exits != null)
+      Arrays.fill(exits, NO_EXIT);
+
+    IntStream.range(0, nbTiles).parallel().forEach(tile -> {
+      int[] stack = new int[64];
+      int size = 0;
+      int[] neighbors = new int[4];
+      for (int v : tileCells(tile, tilesPerRow, width, height)) {
+        if (degrees.get(v) <= 1 && v != source && v != destination) {
+          if (size == stack.length) stack = Arrays.copyOf(stack, 2 * size);
+          stack[size++] = v;
+        }
+      }
+
+      while (size > 0) {
+        int v = stack[--size];
+        if (degrees.getAndSet(v, REMOVED) < 0) continue;
+
+        int nbNeighbors = grid.neighbors(v, neighbors);
+        if (exits != null) {
+          // The neighbor still there, if any: removed cells form trees, whose exits lead out
+          for (int i = 0; i < nbNeighbors; ++i) {
+            if (degrees.get(neighbors[i]) >= 0) {
+              exits[v] = neighbors[i];
+              break;
+            }
+          }
+        }
+
+        for (int i = 0; i < nbNeighbors; ++i) {
+          int neighbor = neighbors[i];
+          if (degrees.decrementAndGet(neighbor) == 1 && neighbor != source && neighbor != destination) {
+            if (size == stack.length) stack = Arrays.copyOf(stack, 2 * size);
+            stack[size++] = neighbor;
+          }
+        }
+      }
+    });
+
+    view.clear();
+    IntStream.range(0, nbTiles).parallel().forEach(tile -> {
+      for (int v : tileCells(tile, tilesPerRow, width, height))
+        if (degrees.get(v) >= 0) view.include(v);
+    });
+  }
+
+  /**
+   * Cells of a tile, row by row.
+   */
+  private static int[] tileCells(int tile, int tilesPerRow, int width, int height) {
+    int x0 = tile % tilesPerRow * TILE;
+    int y0 = tile / tilesPerRow * TILE;
+    int x1 = Math.min(x0 + TILE, width);
+    int y1 = Math.min(y0 + TILE, height);
+
+    int[] cells = new int[(x1 - x0) * (y1 - y0)];
+    int i = 0;
+    for (int y = y0; y < y1; ++y)
+      for (int x = x0; x < x1; ++x)
+        cells[i++] = y * width + x;
+    return cells;
+  }
+}
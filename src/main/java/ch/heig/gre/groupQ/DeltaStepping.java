@@ -0,0 +1,322 @@
+package ch.heig.gre.groupQ;
+
+import ch.heig.gre.graph.GridGraph2D;
+import ch.heig.gre.graph.PositiveWeightFunction;
+import ch.heig.gre.maze.SolverWorkspace;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Parallel single-source shortest paths by Delta-stepping: the distances from one vertex to every vertex of a grid.
+ *
+ * Vertices are grouped in buckets of tentative distances of width Delta, treated in increasing order. Within a bucket,
+ * the light edges (of weight at most Delta) of its vertices are relaxed in parallel, possibly refilling the same bucket,
+ * until it stays empty; then the heavy edges of every vertex which went through the bucket are relaxed in parallel
+ * once. With Delta = minWeight this is Dijkstra by buckets of equal distances, with a larger Delta the buckets hold
+ * more vertices to relax in parallel, at the cost of relaxing some of them several times.
+ *
+ * The distance and predecessor of each vertex are packed in a single long (the distance in the high bits), so that a
+ * relaxation updates both with one compare-and-set and keeps the lowest distance. Relaxations run on a
+ * {@link ForkJoinPool}, in tasks of {@link #GRAIN} vertices; the buckets are filled sequentially between two parallel
+ * steps, from the vertices whose distance decreased.
+ */
+public final class DeltaStepping {
+  /** Distance of a vertex which can't be reached from the source */
+  public static final int INFINITY = Integer.MAX_VALUE;
+
+  /** Number of vertices relaxed by a task without being split */
+  private static final int GRAIN = 256;
+
+  /**
+   * Shortest paths from a source.
+   * @param distances distance from the source to each vertex, {@link #INFINITY} if it can't be reached
+   * @param predecessors predecessor of each vertex on a shortest path from the source,
+   * {@link SolverWorkspace#NO_PREDECESSOR} for the source and the vertices which can't be reached
+   */
+  public record ShortestPaths(int[] distances, int[] predecessors) {}
+
+  private final ForkJoinPool pool;
+
+  // Width of the buckets, 0 to choose it from the weights of each query
+  private final int delta;
+
+  /**
+   * Delta-stepping on the common pool, with Delta chosen from the weights.
+   */
+  public DeltaStepping() {
+    this(ForkJoinPool.commonPool(), 0);
+  }
+
+  /**
+   * @param pool pool running the relaxations
+   * @param delta width of the buckets, 0 to choose it from the weights of each query
+   * @throws IllegalArgumentException if delta is negative
+   */
+  public DeltaStepping(ForkJoinPool pool, int delta) {
+    if (delta < 0)
+      throw new IllegalArgumentException("Delta: " + delta + " must be non negative");
+
+    this.pool = pool;
+    this.delta = delta;
+  }
+
+  /**
+   * Width of the buckets for a weight function: a quarter of the maximal weight, the degree of the grid, so that a
+   * vertex has about one light edge on average, but no less than the minimal weight. When no maximal weight is known,
+   * four times the minimal weight.
+   * @param weights a weight function
+   * @return the width of the buckets
+   */
+  public static int deltaFor(PositiveWeightFunction weights) {
+    int minWeight = weights.minWeight();
+    int maxWeight = weights.maxWeight();
+    if (maxWeight == Integer.MAX_VALUE)
+      return (int) Math.min(4L * minWeight, Integer.MAX_VALUE);
+    return Math.max(minWeight, maxWeight / 4);
+  }
+
+  /**
+   * Computes the shortest paths from a vertex to every vertex of a grid.
+   * @param grid the grid
+   * @param weights weight function of the grid
+   * @param source source vertex
+   * @return the distances and predecessors of every vertex
+   */
+  public ShortestPaths compute(GridGraph2D grid, PositiveWeightFunction weights, int source) {
+    Run run = new Run(grid, weights, delta > 0 ? delta : deltaFor(weights));
+    run.execute(source);
+    return run.result();
+  }
+
+  // Helpers
+
+  private static long pack(int distance, int predecessor) {
+    return (long) distance << 32 | predecessor & 0xFFFFFFFFL;
+  }
+
+  private static int distance(long packed) {
+    return (int) (packed >>> 32);
+  }
+
+  private static int predecessor(long packed) {
+    return (int) packed;
+  }
+
+  /**
+   * State of a computation.
+   */
+  private final class Run {
+    final GridGraph2D grid;
+    final PositiveWeightFunction weights;
+    final int delta;
+
+    /** Distance and predecessor of each vertex, packed */
+    final AtomicLongArray states;
+
+    /** Non empty buckets by index, holding vertices whose distance may be in them (with duplicates) */
+    final TreeMap<Integer, Bucket> buckets = new TreeMap<>();
+
+    /** Vertices whose distance decreased during the last parallel step, by chunks */
+    final ConcurrentLinkedQueue<int[]> improved = new ConcurrentLinkedQueue<>();
+
+    /** Round (light phase) in which each vertex was last put in the frontier, and bucket it was last settled in, + 1 */
+    final int[] frontierRounds;
+    final int[] settledBuckets;
+
+    Run(GridGraph2D grid, PositiveWeightFunction weights, int delta) {
+      this.grid = grid;
+      this.weights = weights;
+      this.delta = delta;
+
+      int n = grid.nbVertices();
+      this.states = new AtomicLongArray(n);
+      long unreached = pack(INFINITY, SolverWorkspace.NO_PREDECESSOR);
+      for (int v = 0; v < n; ++v)
+        states.set(v, unreached);
+      this.frontierRounds = new int[n];
+      this.settledBuckets = new int[n];
+    }
+
+    void execute(int source) {
+      states.set(source, pack(0, SolverWorkspace.NO_PREDECESSOR));
+      bucket(0).add(source);
+
+      int round = 0;
+      Bucket settled = new Bucket();
+      while (!buckets.isEmpty()) {
+        Map.Entry<Integer, Bucket> first = buckets.pollFirstEntry();
+        int index = first.getKey();
+        Bucket current = first.getValue();
+        settled.clear();
+
+        // Light edges, until no vertex falls back in the bucket
+        while (current != null) {
+          ++round;
+          Bucket frontier = new Bucket();
+          for (int i = 0; i < current.size; ++i) {
+            int v = current.vertices[i];
+            if (distance(states.get(v)) / delta != index || frontierRounds[v] == round) continue;
+
+            frontierRounds[v] = round;
+            frontier.add(v);
+            if (settledBuckets[v] != index + 1) {
+              settledBuckets[v] = index + 1;
+              settled.add(v);
+            }
+          }
+
+          relax(frontier, true);
+          current = buckets.remove(index);
+        }
+
+        // Heavy edges, once the distances of the bucket are final
+        relax(settled, false);
+      }
+    }
+
+    ShortestPaths result() {
+      int n = states.length();
+      int[] distances = new int[n];
+      int[] predecessors = new int[n];
+      for (int v = 0; v < n; ++v) {
+        long state = states.get(v);
+        distances[v] = distance(state);
+        predecessors[v] = predecessor(state);
+      }
+      return new ShortestPaths(distances, predecessors);
+    }
+
+    /**
+     * Relaxes the light or heavy edges of some vertices in parallel, then puts the vertices whose distance decreased
+     * in their buckets.
+     */
+    private void relax(Bucket vertices, boolean light) {
+      if (vertices.size == 0) return;
+
+      // Small sets are relaxed by the current thread, without going through the pool
+      Relaxation relaxation = new Relaxation(this, vertices.vertices, 0, vertices.size, light);
+      if (vertices.size <= GRAIN)
+        relaxation.compute();
+      else
+        pool.invoke(relaxation);
+
+      // Improved vertices mostly fall in the same few buckets
+      int lastIndex = -1;
+      Bucket last = null;
+      int[] chunk;
+      while ((chunk = improved.poll()) != null) {
+        // The last cell holds the size of the chunk
+        int size = chunk[chunk.length - 1];
+        for (int i = 0; i < size; ++i) {
+          int v = chunk[i];
+          int index = distance(states.get(v)) / delta;
+          if (index != lastIndex) {
+            lastIndex = index;
+            last = bucket(index);
+          }
+          last.add(v);
+        }
+      }
+    }
+
+    private Bucket bucket(int index) {
+      return buckets.computeIfAbsent(index, i -> new Bucket());
+    }
+
+    /**
+     * Lowers the distance of a vertex, if the new one is lower.
+     * @return true if the distance decreased
+     */
+    boolean lower(int v, int distance, int predecessor) {
+      long packed = pack(distance, predecessor);
+      long current = states.get(v);
+      while (distance(current) > distance) {
+        if (states.compareAndSet(v, current, packed))
+          return true;
+        current = states.get(v);
+      }
+      return false;
+    }
+  }
+
+  /**
+   * Relaxation of the light or heavy edges of a range of vertices, split in halves down to {@link #GRAIN} vertices.
+   * Tasks are never serialized, although RecursiveAction is Serializable.
+   */
+  @SuppressWarnings("serial")
+  private static final class Relaxation extends RecursiveAction {
+    private final Run run;
+    private final int[] vertices;
+    private final int from;
+    private final int to;
+    private final boolean light;
+
+    Relaxation(Run run, int[] vertices, int from, int to, boolean light) {
+      this.run = run;
+      this.vertices = vertices;
+      this.from = from;
+      this.to = to;
+      this.light = light;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from > GRAIN) {
+        int middle = (from + to) >>> 1;
+        invokeAll(new Relaxation(run, vertices, from, middle, light),
+            new Relaxation(run, vertices, middle, to, light));
+        return;
+      }
+
+      // Improved vertices, the last cell holding their number
+      int[] improved = new int[4 * (to - from) + 1];
+      int size = 0;
+      int[] neighbors = new int[4];
+      for (int i = from; i < to; ++i) {
+        int v = vertices[i];
+        int distance = distance(run.states.get(v));
+        int nbNeighbors = run.grid.neighbors(v, neighbors);
+        for (int j = 0; j < nbNeighbors; ++j) {
+          int neighbor = neighbors[j];
+          int weight = run.weights.get(v, neighbor);
+          if ((weight <= run.delta) != light) continue;
+
+          if (run.lower(neighbor, distance + weight, v)) {
+            if (size == improved.length - 1)
+              improved = Arrays.copyOf(improved, 2 * improved.length);
+            improved[size++] = neighbor;
+          }
+        }
+      }
+
+      if (size > 0) {
+        improved[improved.length - 1] = size;
+        run.improved.add(improved);
+      }
+    }
+  }
+
+  /**
+   * Growable list of vertices.
+   */
+  private static final class Bucket {
+    int[] vertices = new int[16];
+    int size = 0;
+
+    void add(int v) {
+      if (size == vertices.length)
+        vertices = Arrays.copyOf(vertices, 2 * size);
+      vertices[size++] = v;
+    }
+
+    void clear() {
+      size = 0;
+    }
+  }
+}
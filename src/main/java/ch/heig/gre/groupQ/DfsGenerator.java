@@ -16,6 +16,8 @@ public final class DfsGenerator implements MazeGenerator {
     // initiate a random number generator
     Random rand = new Random();
     Stack<Integer> stack = new Stack<>();
+    // neighbours of the currently treated vertex, read into the same buffer at every step
+    int[] neighbours = new int[4];
     // visitedVertices will represent for each vertex whether it was already (or not) visited by the DFS algorithm.
     List<Boolean> visitedVertices = new ArrayList<>(Collections.nCopies(builder.topology().nbVertices(), false));
 
@@ -28,11 +30,20 @@ public final class DfsGenerator implements MazeGenerator {
       Integer currentVertex = stack.peek();
       builder.progressions().setLabel(currentVertex, Progression.PROCESSING);
 
-      // we get a list of the neighbours of the currently treated vertex, and remove the already visited vertices from it
-      List<Integer> neighbours = builder.topology().neighbors(currentVertex);
-      neighbours.removeIf(visitedVertices::get);
+      // we get the neighbours of the currently treated vertex, and keep the unvisited ones at the start of the buffer
+      int nbNeighbours = builder.topology().neighbors(currentVertex, neighbours);
+      if (nbNeighbours > neighbours.length) {
+        // the topology isn't a grid: the buffer is too small for this vertex
+        neighbours = new int[nbNeighbours];
+        builder.topology().neighbors(currentVertex, neighbours);
+      }
+      int nbUnvisited = 0;
+      for (int i = 0; i < nbNeighbours; ++i) {
+        if (!visitedVertices.get(neighbours[i]))
+          neighbours[nbUnvisited++] = neighbours[i];
+      }
 
-      if (neighbours.isEmpty()) {
+      if (nbUnvisited == 0) {
         // if after filtering, the neighbors list is empty, it means that every neighbor of the vertex was already treated
         // therefore, we can mark that processing on the vertex is finished, and remove it from the stack
         stack.pop();
@@ -41,7 +52,7 @@ public final class DfsGenerator implements MazeGenerator {
       }
       // after filtering the list, we randomly choose one of it's neighbors, and push it on the stack to process it
       // afterward
-      Integer neighbour = neighbours.get(rand.nextInt(neighbours.size()));
+      int neighbour = neighbours[rand.nextInt(nbUnvisited)];
       stack.push(neighbour);
       // we break the wall between the current vertex and it's chosen neighbor, and mark the neighbor as visited to
       // prevent breaking another wall toward it
@@ -0,0 +1,88 @@
+package ch.heig.gre.groupQ;
+
+import ch.heig.gre.graph.GridGraph2D;
+import ch.heig.gre.graph.PositiveWeightFunction;
+import ch.heig.gre.maze.DistanceTableSolver;
+import ch.heig.gre.maze.IndexedHeap;
+import ch.heig.gre.maze.SolverWorkspace;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Distance table by one Dijkstra per source, the sources being searched in parallel.
+ *
+ * A single search tree from each source gives its distance to every target: the search stops as soon as every target
+ * is settled, instead of one A* per pair. Each thread reuses its own {@link SolverWorkspace}, so that a search only
+ * pays for the vertices it reaches. Nothing is precomputed: the maze may change between two tables. For many tables
+ * on a static maze, {@link ContractionHierarchy} answers much faster once built.
+ */
+public final class DijkstraDistanceTable implements DistanceTableSolver {
+  // Searches of the sources, one workspace per thread
+  private final ThreadLocal<SolverWorkspace> workspaces = ThreadLocal.withInitial(SolverWorkspace::new);
+
+  @Override
+  public int[] distances(GridGraph2D grid, PositiveWeightFunction weights, int[] sources, int[] targets) {
+    int n = grid.nbVertices();
+    int m = targets.length;
+
+    // Column of each target vertex, the first one for duplicates
+    int[] columns = new int[n];
+    Arrays.fill(columns, -1);
+    int nbDistinct = 0;
+    for (int j = 0; j < m; ++j) {
+      if (columns[targets[j]] == -1) {
+        columns[targets[j]] = j;
+        ++nbDistinct;
+      }
+    }
+    int distinctTargets = nbDistinct;
+
+    int[] table = new int[sources.length * m];
+    Arrays.fill(table, UNREACHABLE);
+
+    IntStream.range(0, sources.length).parallel().forEach(i -> {
+      SolverWorkspace workspace = workspaces.get();
+      workspace.reset(n);
+      IndexedHeap queue = workspace.queue();
+
+      workspace.discover(sources[i], 0);
+      workspace.update(sources[i], 0, SolverWorkspace.NO_PREDECESSOR);
+      queue.insert(sources[i], 0);
+
+      int[] neighbors = new int[4];
+      int remaining = distinctTargets;
+      while (!queue.isEmpty() && remaining > 0) {
+        int v = queue.poll();
+        int cost = workspace.cost(v);
+
+        if (columns[v] != -1) {
+          table[i * m + columns[v]] = cost;
+          --remaining;
+        }
+
+        int nbNeighbors = grid.neighbors(v, neighbors);
+        for (int j = 0; j < nbNeighbors; ++j) {
+          int neighbor = neighbors[j];
+          if (!workspace.isDiscovered(neighbor))
+            workspace.discover(neighbor, 0);
+
+          int newCost = cost + weights.get(v, neighbor);
+          if (newCost < workspace.cost(neighbor)) {
+            workspace.update(neighbor, newCost, v);
+            if (queue.contains(neighbor))
+              queue.decreaseKey(neighbor, newCost);
+            else
+              queue.insert(neighbor, newCost);
+          }
+        }
+      }
+
+      // Duplicated targets share the distance of their first occurrence
+      for (int j = 0; j < m; ++j)
+        table[i * m + j] = table[i * m + columns[targets[j]]];
+    });
+
+    return table;
+  }
+}
@@ -1,5 +1,6 @@
 package ch.heig.gre.groupQ;
 
+import ch.heig.gre.graph.FullGridGraph;
 import ch.heig.gre.graph.GridGraph;
 import ch.heig.gre.graph.GridGraph2D;
 import ch.heig.gre.graph.PositiveWeightFunction;
@@ -7,6 +8,7 @@ import ch.heig.gre.maze.BoolVertexLabelling;
 import ch.heig.gre.maze.GridMazeSolver;
 import ch.heig.gre.maze.MazeBuilder;
 import ch.heig.gre.maze.MazeGenerator;
+import ch.heig.gre.maze.SolverWorkspace;
 import ch.heig.gre.maze.impl.GridMazeBuilder;
 import ch.heig.gre.maze.impl.MazeTuner;
 import ch.heig.gre.maze.impl.ShenaniganWeightFunction;
@@ -22,26 +24,20 @@ import java.util.random.RandomGenerator;
 
 public final class Experiment {
   /** Dimension de la grille (carrée) */
-  private static final int SIDE = 1100;
+  static final int SIDE = 1100;
 
   /** Sommets source et destination pour les expériences */
-  private static final int SRC = 550500;
-  private static final int DST = 660600;
+  static final int SRC = 550500;
+  static final int DST = 660600;
 
   /** Nombre de grilles à générer pour chaque expérience */
   private static final int N = 100;
 
   /** Topologie de la grille */
-  private static final GridGraph2D TOPOLOGY;
-
-  static {
-    var g = new GridGraph(SIDE);
-    GridGraph.bindAll(g);
-    TOPOLOGY = g;
-  }
+  private static final GridGraph2D TOPOLOGY = new FullGridGraph(SIDE);
 
   /** Paramètres des expériences à réaliser */
-  private static final Params[] PARAMS = {
+  static final Params[] PARAMS = {
       new Params(
           "Relief très peu dense, labyrinthe très ouvert",
           new double[]{0, 0.15, 20, 1, 20}),
@@ -128,6 +124,9 @@ public final class Experiment {
     MazeGenerator mazeGenerator = new DfsGenerator();
     Random randomGenerator = new Random();
 
+    // Search state shared by every query, so that consecutive queries do not reallocate nor reinitialize it
+    SolverWorkspace workspace = new SolverWorkspace();
+
     // Setting a seed, so that it always give the same output
     randomGenerator.setSeed(2012);
 
@@ -170,7 +169,7 @@ public final class Experiment {
               // Create an AStar maze solver instance with specific K
               AStar aStar = new AStar(heuristic, k);
 
-              GridMazeSolver.Result result = aStar.solve(generationResult.maze(), generationResult.weights(), SRC, DST, new BoolVertexLabelling(TOPOLOGY.nbVertices()));
+              GridMazeSolver.Result result = aStar.solve(generationResult.maze(), generationResult.weights(), SRC, DST, new BoolVertexLabelling(TOPOLOGY.nbVertices()), workspace);
 
               // Insert K if the current k is not in the map, add it. Doing this here prevents us from adding a loop at the beginning
               if (!kManhattanResults.containsKey(k)) {
@@ -186,7 +185,7 @@ public final class Experiment {
             AStar aStar = new AStar(heuristic);
 
             // Solving the given configuration
-            GridMazeSolver.Result result = aStar.solve(generationResult.maze(), generationResult.weights(), SRC, DST, new BoolVertexLabelling(TOPOLOGY.nbVertices()));
+            GridMazeSolver.Result result = aStar.solve(generationResult.maze(), generationResult.weights(), SRC, DST, new BoolVertexLabelling(TOPOLOGY.nbVertices()), workspace);
 
             // Store results
             results.get(heuristic.ordinal()).add(result);
@@ -299,7 +298,7 @@ public final class Experiment {
    * @param maze    labyrinthe généré
    * @param weights Fonction de pondération associée
    */
-  private record GenerationResult(GridGraph2D maze, PositiveWeightFunction weights) {}
+  record GenerationResult(GridGraph2D maze, PositiveWeightFunction weights) {}
 
   /**
    * Génère un labyrinthe en forme de grille avec un générateur donné et des réglages spécifiques pour le relief et
@@ -310,7 +309,7 @@ public final class Experiment {
    * @param rng            Générateur de nombres aléatoires.
    * @return Un {@link GenerationResult} contenant le labyrinthe et la fonction de pondération associée.
    */
-  private static GenerationResult generateGrid(MazeGenerator generator, double[] tuneParameters, RandomGenerator rng) {
+  static GenerationResult generateGrid(MazeGenerator generator, double[] tuneParameters, RandomGenerator rng) {
     GridGraph maze = new GridGraph(SIDE);
     if (!generator.requireWalls())
       GridGraph.bindAll(maze);
@@ -0,0 +1,175 @@
+package ch.heig.gre.groupQ;
+
+import ch.heig.gre.graph.GridGraph2D;
+import ch.heig.gre.graph.PositiveWeightFunction;
+import ch.heig.gre.maze.IndexedHeap;
+import ch.heig.gre.maze.SolverWorkspace;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Flow field towards a destination: the direction of the next cell on a shortest path from every cell of a maze.
+ *
+ * The field is the shortest path tree of a single Dijkstra from the destination, following the edges backwards (the
+ * weight of the edge from a cell to the next one is used, weights need not be symmetric). Each cell only keeps the
+ * direction of its successor on 2 bits, 32 cells per long, plus one bit telling whether it reaches the destination.
+ * The path from any cell is then walked in time proportional to its length, without any search.
+ *
+ * A field describes the maze at the time it was built, see {@link FlowFieldCache} to keep fields up to date.
+ */
+public final class FlowField {
+  /** Directions of the next cell */
+  private static final int RIGHT = 0;
+  private static final int DOWN = 1;
+  private static final int LEFT = 2;
+  private static final int UP = 3;
+
+  private final int width;
+  private final int destination;
+
+  /** Direction of the next cell of each cell, 2 bits each */
+  private final long[] directions;
+
+  /** Whether each cell reaches the destination, 1 bit each */
+  private final long[] reached;
+
+  /** Number of cells settled by the build */
+  private final int settled;
+
+  private FlowField(int width, int destination, long[] directions, long[] reached, int settled) {
+    this.width = width;
+    this.destination = destination;
+    this.directions = directions;
+    this.reached = reached;
+    this.settled = settled;
+  }
+
+  /**
+   * Builds the flow field of a maze towards a destination.
+   * @param grid the maze
+   * @param weights weight function of the maze
+   * @param destination destination cell
+   * @return the flow field
+   */
+  public static FlowField build(GridGraph2D grid, PositiveWeightFunction weights, int destination) {
+    return build(grid, weights, destination, new SolverWorkspace());
+  }
+
+  /**
+   * @param grid the maze
+   * @param weights weight function of the maze
+   * @param destination destination cell
+   * @param workspace workspace of the Dijkstra
+   * @return the flow field
+   */
+  public static FlowField build(GridGraph2D grid, PositiveWeightFunction weights, int destination, SolverWorkspace workspace) {
+    int n = grid.nbVertices();
+    int width = grid.width();
+    long[] directions = new long[(n + 31) / 32];
+    long[] reached = new long[(n + 63) / 64];
+
+    workspace.reset(n);
+    IndexedHeap queue = workspace.queue();
+    workspace.discover(destination, 0);
+    workspace.update(destination, 0, SolverWorkspace.NO_PREDECESSOR);
+    queue.insert(destination, 0);
+
+    int[] neighbors = new int[4];
+    int settled = 0;
+    while (!queue.isEmpty()) {
+      int v = queue.poll();
+      int cost = workspace.cost(v);
+      ++settled;
+
+      // The shortest path of v goes through its predecessor in the tree
+      reached[v >>> 6] |= 1L << v;
+      int next = workspace.predecessor(v);
+      if (next != SolverWorkspace.NO_PREDECESSOR)
+        directions[v >>> 5] |= (long) direction(width, v, next) << ((v & 31) << 1);
+
+      int nbNeighbors = grid.neighbors(v, neighbors);
+      for (int i = 0; i < nbNeighbors; ++i) {
+        int neighbor = neighbors[i];
+        if (!workspace.isDiscovered(neighbor))
+          workspace.discover(neighbor, 0);
+
+        // Backwards: the path goes from the neighbor to v
+        int newCost = cost + weights.get(neighbor, v);
+        if (newCost < workspace.cost(neighbor)) {
+          workspace.update(neighbor, newCost, v);
+          if (queue.contains(neighbor))
+            queue.decreaseKey(neighbor, newCost);
+          else
+            queue.insert(neighbor, newCost);
+        }
+      }
+    }
+
+    return new FlowField(width, destination, directions, reached, settled);
+  }
+
+  /**
+   * @return the destination of the field
+   */
+  public int destination() {
+    return destination;
+  }
+
+  /**
+   * @return the number of cells settled by the build, those reaching the destination
+   */
+  public int settled() {
+    return settled;
+  }
+
+  /**
+   * @param v a cell
+   * @return whether v reaches the destination
+   */
+  public boolean reaches(int v) {
+    return (reached[v >>> 6] & 1L << v) != 0;
+  }
+
+  /**
+   * @param v a cell reaching the destination, other than the destination
+   * @return the next cell on a shortest path from v to the destination
+   */
+  public int next(int v) {
+    int direction = (int) (directions[v >>> 5] >>> ((v & 31) << 1)) & 3;
+    return switch (direction) {
+      case RIGHT -> v + 1;
+      case DOWN -> v + width;
+      case LEFT -> v - 1;
+      default -> v - width;
+    };
+  }
+
+  /**
+   * Shortest path from a cell to the destination, in time proportional to its length.
+   * @param source a cell
+   * @return the cells of the path, source and destination included, empty if source does not reach the destination
+   */
+  public List<Integer> path(int source) {
+    if (!reaches(source))
+      return Collections.emptyList();
+
+    List<Integer> path = new ArrayList<>();
+    path.add(source);
+    for (int v = source; v != destination; ) {
+      v = next(v);
+      path.add(v);
+    }
+    return path;
+  }
+
+  // Helpers
+
+  private static int direction(int width, int v, int next) {
+    if (next == v + 1) return RIGHT;
+    if (next == v + width) return DOWN;
+    if (next == v - 1) return LEFT;
+    return UP;
+  }
+}
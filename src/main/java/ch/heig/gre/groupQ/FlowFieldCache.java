@@ -0,0 +1,123 @@
+package ch.heig.gre.groupQ;
+
+import ch.heig.gre.graph.GraphObserver;
+import ch.heig.gre.graph.GridGraph2D;
+import ch.heig.gre.graph.ObservableGraph;
+import ch.heig.gre.graph.PositiveWeightFunction;
+import ch.heig.gre.graph.VertexLabelling;
+import ch.heig.gre.maze.GridMazeSolver;
+import ch.heig.gre.maze.SolverWorkspace;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Solver answering from the {@link FlowField} of the destination, built on the first query towards it and kept for the
+ * following ones, so that many agents heading for the same destinations only pay for walking their paths.
+ *
+ * At most a given number of fields are kept, the least recently used being dropped first. As a {@link GraphObserver},
+ * the cache drops every field when walls change; label events (such as the progression of a search) are ignored, so
+ * weight changes must be reported with {@link #invalidate()}. Queries on another grid or weight function drop the
+ * fields too. A query only reports the treatments of the field build it triggered (0 when the field was cached or
+ * there is no path), and does not mark processed vertices. A cache must be used by one thread at a time, and must be
+ * notified of every change of the maze.
+ */
+public final class FlowFieldCache implements GridMazeSolver, GraphObserver {
+  // Maze the fields belong to, null before the first query
+  private GridGraph2D grid;
+  private PositiveWeightFunction weights;
+
+  private final Map<Integer, FlowField> fields;
+
+  /**
+   * @param capacity maximal number of fields kept
+   * @throws IllegalArgumentException if capacity is not positive
+   */
+  public FlowFieldCache(int capacity) {
+    if (capacity <= 0)
+      throw new IllegalArgumentException("Capacity: " + capacity + " must be positive");
+
+    // Access order, the eldest entry is the least recently used
+    this.fields = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Integer, FlowField> eldest) {
+        return size() > capacity;
+      }
+    };
+  }
+
+  /**
+   * Creates a cache notified of the changes of a maze.
+   * @param maze the maze the cache will be used on
+   * @param capacity maximal number of fields kept
+   * @return the subscribed cache
+   */
+  public static FlowFieldCache subscribedTo(ObservableGraph maze, int capacity) {
+    FlowFieldCache cache = new FlowFieldCache(capacity);
+    maze.subscribe(cache);
+    return cache;
+  }
+
+  @Override
+  public Result solve(GridGraph2D grid,
+                      PositiveWeightFunction weights,
+                      int source,
+                      int destination,
+                      VertexLabelling<Boolean> processed) {
+    return solve(grid, weights, source, destination, processed, new SolverWorkspace());
+  }
+
+  @Override
+  public Result solve(GridGraph2D grid,
+                      PositiveWeightFunction weights,
+                      int source,
+                      int destination,
+                      VertexLabelling<Boolean> processed,
+                      SolverWorkspace workspace) {
+    if (grid != this.grid || weights != this.weights) {
+      fields.clear();
+      this.grid = grid;
+      this.weights = weights;
+    }
+
+    int treated = 0;
+    FlowField field = fields.get(destination);
+    if (field == null) {
+      field = FlowField.build(grid, weights, destination, workspace);
+      fields.put(destination, field);
+      treated = field.settled();
+    }
+
+    List<Integer> path = field.path(source);
+    if (path.isEmpty())
+      return new Result(Collections.emptyList(), 0, 0);
+    return new Result(path, path.size(), treated);
+  }
+
+  /**
+   * @param destination a destination
+   * @return the cached field towards the destination, or null
+   */
+  public FlowField cached(int destination) {
+    return fields.get(destination);
+  }
+
+  /**
+   * Drops every cached field, to be called when weights change.
+   */
+  public void invalidate() {
+    fields.clear();
+  }
+
+  @Override
+  public void onEdgeAdded(int u, int v) {
+    invalidate();
+  }
+
+  @Override
+  public void onEdgeRemoved(int u, int v) {
+    invalidate();
+  }
+}
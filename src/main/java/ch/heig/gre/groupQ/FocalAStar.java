@@ -0,0 +1,180 @@
+package ch.heig.gre.groupQ;
+
+import ch.heig.gre.graph.GridGraph2D;
+import ch.heig.gre.graph.PositiveWeightFunction;
+import ch.heig.gre.graph.VertexLabelling;
+import ch.heig.gre.maze.GridMazeSolver;
+import ch.heig.gre.maze.IndexedHeap;
+import ch.heig.gre.maze.SolverWorkspace;
+
+import java.util.Collections;
+
+/**
+ * Focal search (A*e): a bounded-suboptimal A*, finding a path at most (1 + e) times longer than the shortest one.
+ *
+ * As in A*, the open vertices are ordered by f = g + h with an admissible heuristic, so that the lowest f bounds the
+ * cost of the shortest path from below. But the vertex treated is not the one with the lowest f: it is chosen among the
+ * focal vertices, those whose f is at most (1 + e) times the lowest one, as the one with the lowest g + (1 + e) * h.
+ * The search thus heads to the destination as weighted A* (or K_MANHATTAN) does, while the destination is only treated
+ * once its cost is within the bound. Ordering the focal vertices by the number of steps to the destination instead, as
+ * usual on grids, sends the search into the dead ends of the maze and treats more vertices than A* as e grows.
+ *
+ * The open vertices are split in two queues: the focal ones, ordered by inflated estimate, and the others, ordered by
+ * f. Since the heuristic is consistent, the lowest f never decreases: vertices only move from the second queue to the
+ * first. A third queue holds every open vertex by f, to know the lowest one.
+ */
+public final class FocalAStar implements GridMazeSolver {
+  // Regular A*, providing the heuristic
+  private final AStar aStar;
+
+  private final double epsilon;
+
+  /**
+   * Focal search on the Manhattan heuristic.
+   * @param epsilon tolerated relative excess of the path cost
+   * @throws IllegalArgumentException if epsilon is negative
+   */
+  public FocalAStar(double epsilon) {
+    this(AStar.Heuristic.MANHATTAN, epsilon);
+  }
+
+  /**
+   * @param heuristic a consistent heuristic
+   * @param epsilon tolerated relative excess of the path cost
+   * @throws IllegalArgumentException if the heuristic is K_MANHATTAN, which gives no bound, or if epsilon is negative
+   */
+  public FocalAStar(AStar.Heuristic heuristic, double epsilon) {
+    if (heuristic == AStar.Heuristic.K_MANHATTAN)
+      throw new IllegalArgumentException("Focal search requires an admissible heuristic");
+
+    this.aStar = new AStar(heuristic);
+    this.epsilon = checkEpsilon(epsilon);
+  }
+
+  public FocalAStar(LandmarkTable landmarks, double epsilon) {
+    this.aStar = new AStar(landmarks);
+    this.epsilon = checkEpsilon(epsilon);
+  }
+
+  /**
+   * @return the bound guaranteed on the ratio between the cost of the path found and the shortest one, 1 + e
+   */
+  public double bound() {
+    return 1 + epsilon;
+  }
+
+  @Override
+  public Result solve(GridGraph2D grid,
+                      PositiveWeightFunction weights,
+                      int source,
+                      int destination,
+                      VertexLabelling<Boolean> processed) {
+    return solve(grid, weights, source, destination, processed, new SolverWorkspace());
+  }
+
+  @Override
+  public Result solve(GridGraph2D grid,
+                      PositiveWeightFunction weights,
+                      int source,
+                      int destination,
+                      VertexLabelling<Boolean> processed,
+                      SolverWorkspace workspace) {
+    int n = grid.nbVertices();
+    int width = grid.width();
+    int minWeight = weights.minWeight();
+    int destinationX = destination % width;
+    int destinationY = destination / width;
+    AStar.HeuristicFunction heuristicFunction = aStar.heuristicFunction();
+
+    workspace.reset(n);
+    IndexedHeap open = workspace.queue();
+    IndexedHeap focal = workspace.extraQueue(0);
+    IndexedHeap others = workspace.extraQueue(1);
+
+    workspace.discover(source, heuristicFunction.get(source % width, source / width, destinationX, destinationY, minWeight));
+    workspace.update(source, 0, SolverWorkspace.NO_PREDECESSOR);
+    open.insert(source, workspace.heuristic(source));
+    focal.insert(source, inflatedKey(workspace, source));
+    long threshold = threshold(open.peekKey());
+
+    int[] neighbors = new int[4];
+    int treated = 0;
+    while (!focal.isEmpty()) {
+      int current = focal.poll();
+      open.remove(current);
+      processed.setLabel(current, true);
+
+      // As in AStar, the destination is not counted as treated
+      if (current == destination)
+        return AStar.buildResult(workspace, source, destination, treated);
+      ++treated;
+
+      int cost = workspace.cost(current);
+      int nbNeighbors = grid.neighbors(current, neighbors);
+      for (int i = 0; i < nbNeighbors; ++i) {
+        int neighbor = neighbors[i];
+        if (!workspace.isDiscovered(neighbor))
+          workspace.discover(neighbor, heuristicFunction.get(neighbor % width, neighbor / width, destinationX, destinationY, minWeight));
+
+        int newCost = cost + weights.get(current, neighbor);
+        if (newCost >= workspace.cost(neighbor)) continue;
+
+        workspace.update(neighbor, newCost, current);
+        int f = newCost + workspace.heuristic(neighbor);
+        if (focal.contains(neighbor)) {
+          open.decreaseKey(neighbor, f);
+          focal.decreaseKey(neighbor, inflatedKey(workspace, neighbor));
+        } else if (others.contains(neighbor)) {
+          open.decreaseKey(neighbor, f);
+          if (f <= threshold) {
+            others.remove(neighbor);
+            focal.insert(neighbor, inflatedKey(workspace, neighbor));
+          } else {
+            others.decreaseKey(neighbor, f);
+          }
+        } else {
+          // Discovered or reopened, treated vertices are not closed for good since the focal order ignores f
+          open.insert(neighbor, f);
+          if (f <= threshold)
+            focal.insert(neighbor, inflatedKey(workspace, neighbor));
+          else
+            others.insert(neighbor, f);
+        }
+      }
+
+      if (open.isEmpty()) break;
+
+      // The lowest f may have increased, letting other vertices in the focal ones
+      long newThreshold = threshold(open.peekKey());
+      if (newThreshold > threshold) {
+        threshold = newThreshold;
+        while (!others.isEmpty() && others.peekKey() <= threshold) {
+          int v = others.poll();
+          focal.insert(v, inflatedKey(workspace, v));
+        }
+      }
+    }
+
+    return new Result(Collections.emptyList(), 0, 0);
+  }
+
+  // Helpers
+
+  private long threshold(int lowestF) {
+    return (long) Math.floor((1 + epsilon) * lowestF);
+  }
+
+  /**
+   * Order of the focal vertices: the estimate of the cost of a path through them with the heuristic inflated by 1 + e,
+   * as in weighted A*.
+   */
+  private int inflatedKey(SolverWorkspace workspace, int v) {
+    return (int) Math.min(workspace.cost(v) + (1 + epsilon) * workspace.heuristic(v), Integer.MAX_VALUE);
+  }
+
+  private static double checkEpsilon(double epsilon) {
+    if (!(epsilon >= 0))
+      throw new IllegalArgumentException("Epsilon: " + epsilon + " must be non negative");
+    return epsilon;
+  }
+}
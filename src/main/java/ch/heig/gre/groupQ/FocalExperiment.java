@@ -0,0 +1,91 @@
+package ch.heig.gre.groupQ;
+
+import ch.heig.gre.maze.BoolVertexLabelling;
+import ch.heig.gre.maze.GridMazeSolver;
+import ch.heig.gre.maze.MazeGenerator;
+import ch.heig.gre.maze.SolverWorkspace;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Variant of {@link Experiment} for the focal search: on the {@link Experiment#PARAMS} configurations, compares the
+ * treatments of {@link FocalAStar} for several values of e to those of A* with the Manhattan heuristic, along with the
+ * cost of the paths found against the guaranteed bound 1 + e.
+ *
+ * Costs are the sums of the weights along the paths, the lengths of {@link Experiment} being their number of vertices.
+ * Usage: {@code FocalExperiment [mazes per experiment]}.
+ */
+public final class FocalExperiment {
+  /** Default number of mazes generated for each experiment */
+  private static final int DEFAULT_N = 10;
+
+  /** Values of e compared */
+  private static final double[] EPSILONS = {0, 0.01, 0.05, 0.1, 0.25, 0.5, 1};
+
+  private static final String CSV = "focal_stats.csv";
+
+  private FocalExperiment() {}
+
+  public static void main(String[] args) {
+    int n = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_N;
+
+    MazeGenerator mazeGenerator = new DfsGenerator();
+    Random randomGenerator = new Random();
+    randomGenerator.setSeed(2012);
+    SolverWorkspace workspace = new SolverWorkspace();
+
+    try {
+      Files.deleteIfExists(Paths.get(CSV));
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+    Experiment.writeCsvHeaders(CSV, "Experiment name", "Epsilon", "Guaranteed bound", "Average treatments", "Manhattan average treatments", "Treatment percentage decrease", "Mean cost ratio", "Max cost ratio");
+
+    for (Experiment.Params p : Experiment.PARAMS) {
+      System.out.println("\nEXPERIENCE : " + p.description());
+
+      long manhattanTreatments = 0;
+      long[] treatments = new long[EPSILONS.length];
+      double[] ratioSums = new double[EPSILONS.length];
+      double[] maxRatios = new double[EPSILONS.length];
+
+      for (int i = 0; i < n; ++i) {
+        Experiment.GenerationResult maze = Experiment.generateGrid(mazeGenerator, p.parameters(), randomGenerator);
+        int nbVertices = maze.maze().nbVertices();
+
+        GridMazeSolver.Result optimal = new AStar(AStar.Heuristic.MANHATTAN).solve(maze.maze(), maze.weights(), Experiment.SRC, Experiment.DST, new BoolVertexLabelling(nbVertices), workspace);
+        long optimalCost = AStar.pathCost(optimal.path(), maze.weights());
+        manhattanTreatments += optimal.treatments();
+
+        for (int e = 0; e < EPSILONS.length; ++e) {
+          FocalAStar focal = new FocalAStar(EPSILONS[e]);
+          GridMazeSolver.Result result = focal.solve(maze.maze(), maze.weights(), Experiment.SRC, Experiment.DST, new BoolVertexLabelling(nbVertices), workspace);
+
+          double ratio = optimalCost == 0 ? 1 : (double) AStar.pathCost(result.path(), maze.weights()) / optimalCost;
+          if (ratio > focal.bound())
+            throw new IllegalStateException("Cost ratio " + ratio + " above the bound " + focal.bound());
+
+          treatments[e] += result.treatments();
+          ratioSums[e] += ratio;
+          maxRatios[e] = Math.max(maxRatios[e], ratio);
+        }
+      }
+
+      double manhattanAverage = (double) manhattanTreatments / n;
+      System.out.printf("MANHATTAN: %.2f traitements\n", manhattanAverage);
+      for (int e = 0; e < EPSILONS.length; ++e) {
+        double average = (double) treatments[e] / n;
+        double decrease = (manhattanAverage - average) / (manhattanAverage / 100);
+        System.out.printf("e = %.2f: %.2f traitements (%.2f%% de moins), ratio moyen %.4f, maximal %.4f\n",
+            EPSILONS[e], average, decrease, ratioSums[e] / n, maxRatios[e]);
+
+        Experiment.addCsvLine(CSV, String.format(Locale.US, "\"%s\",%.2f,%.2f,%.2f,%.2f,%.2f,%.4f,%.4f", p.description(),
+            EPSILONS[e], 1 + EPSILONS[e], average, manhattanAverage, decrease, ratioSums[e] / n, maxRatios[e]));
+      }
+    }
+  }
+}
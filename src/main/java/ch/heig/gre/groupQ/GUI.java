@@ -26,7 +26,9 @@ public class GUI extends Application {
         new ChoiceItem<>("A* - Norme infinie", new AStar(AStar.Heuristic.INFINITY_NORM)),
         new ChoiceItem<>("A* - Norme euclidienne", new AStar(AStar.Heuristic.EUCLIDEAN_NORM)),
         new ChoiceItem<>("A* - Manhattan", new AStar(AStar.Heuristic.MANHATTAN)),
-        new ChoiceItem<>("A* - K Manhattan", new AStar(AStar.Heuristic.K_MANHATTAN, 5))
+        new ChoiceItem<>("A* - K Manhattan", new AStar(AStar.Heuristic.K_MANHATTAN, 5)),
+        new ChoiceItem<>("A* - Manhattan (Dial)", new BucketAStar(AStar.Heuristic.MANHATTAN)),
+        new ChoiceItem<>("A* bidirectionnel - Manhattan", new BidirectionalAStar(AStar.Heuristic.MANHATTAN))
     ));
 
     stage.show();
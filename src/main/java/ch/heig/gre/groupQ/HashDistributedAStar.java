@@ -0,0 +1,485 @@
+package ch.heig.gre.groupQ;
+
+import ch.heig.gre.graph.GridGraph2D;
+import ch.heig.gre.graph.PositiveWeightFunction;
+import ch.heig.gre.graph.VertexLabelling;
+import ch.heig.gre.maze.GridMazeSolver;
+import ch.heig.gre.maze.IndexedHeap;
+import ch.heig.gre.maze.SolverWorkspace;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hash Distributed A* (HDA*): a single query solved by several threads, each owning a part of the vertices.
+ *
+ * The grid is cut in square tiles, each tile being assigned to a worker by a hash of its coordinates: neighbor vertices
+ * mostly belong to the same worker, while the work spreads evenly whatever the shape of the search. Each worker runs A*
+ * on its own vertices, with its own queue. Only the owner of a vertex writes its cost and predecessor (in the shared
+ * workspace, on distinct vertices); a relaxed edge towards a vertex of another worker is sent to it, in batches, through
+ * a lock-free mailbox.
+ *
+ * Since the workers do not treat the vertices in the global order of f, a vertex may be treated before its cost is
+ * final: it is then treated again when a lower cost arrives. The cost of the destination found so far (the incumbent)
+ * is shared, and vertices whose f reaches it are not treated nor sent, as they cannot lead to a shorter path. The
+ * search ends when every worker is out of such vertices and no batch is in flight: the incumbent is then the cost of a
+ * shortest path, for an admissible heuristic.
+ *
+ * Termination is detected by a single counter of the busy workers plus the batches in flight: a batch is counted before
+ * being sent and uncounted once received, a worker counts itself busy until it runs out of work, and an idle worker
+ * receiving a batch takes over its count. The counter thus never underestimates the remaining work, and reaching 0
+ * means that nothing can happen anymore.
+ *
+ * The processed labelling is written concurrently by the workers, on distinct vertices. The treatments of the result
+ * sum those of all workers.
+ *
+ * The caller runs the first worker, the others run on daemon threads owned by the solver, kept between queries and
+ * stopped after {@link #KEEP_ALIVE_SECONDS} s without any. Queries on the same solver are run one at a time, as the
+ * workers of a query must all run at once. An idle worker spins for a while, then parks until a batch arrives or the
+ * search ends. If a worker fails, the search stops and the first failure is rethrown by solve.
+ */
+public final class HashDistributedAStar implements GridMazeSolver {
+  /** Side of the tiles assigned to the workers */
+  private static final int TILE = 16;
+
+  /** Number of relaxed edges (vertex, cost, predecessor) per batch */
+  private static final int BATCH = 64;
+
+  /** Number of vertices treated by a worker between two flushes of its partial batches */
+  private static final int FLUSH_PERIOD = 32;
+
+  /** Number of checks of its mailbox by an idle worker before it parks */
+  private static final int SPINS = 256;
+
+  /** Time after which the idle threads of the workers stop */
+  private static final int KEEP_ALIVE_SECONDS = 60;
+
+  // Regular A*, providing the heuristic
+  private final AStar aStar;
+
+  private final int nbWorkers;
+
+  // Threads of the workers but the first, null for a single worker
+  private final ThreadPoolExecutor pool;
+
+  // Queues of the workers of the last query, taken by the next one on a grid of the same size to avoid allocating them
+  private final AtomicReference<Queues> spareQueues = new AtomicReference<>();
+
+  private record Queues(int nbVertices, int width, IndexedHeap[] heaps) {}
+
+  /**
+   * A solver using all available processors.
+   * @param heuristic an admissible heuristic
+   */
+  public HashDistributedAStar(AStar.Heuristic heuristic) {
+    this(heuristic, Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * @param heuristic an admissible heuristic
+   * @param nbWorkers number of threads searching
+   * @throws IllegalArgumentException if nbWorkers is not positive, or for K_MANHATTAN, which is not admissible
+   */
+  public HashDistributedAStar(AStar.Heuristic heuristic, int nbWorkers) {
+    if (heuristic == AStar.Heuristic.K_MANHATTAN)
+      throw new IllegalArgumentException("HDA* requires an admissible heuristic");
+
+    this.aStar = new AStar(heuristic);
+    this.nbWorkers = checkWorkers(nbWorkers);
+    this.pool = createPool(nbWorkers);
+  }
+
+  public HashDistributedAStar(LandmarkTable landmarks, int nbWorkers) {
+    this.aStar = new AStar(landmarks);
+    this.nbWorkers = checkWorkers(nbWorkers);
+    this.pool = createPool(nbWorkers);
+  }
+
+  @Override
+  public Result solve(GridGraph2D grid,
+                      PositiveWeightFunction weights,
+                      int source,
+                      int destination,
+                      VertexLabelling<Boolean> processed) {
+    return solve(grid, weights, source, destination, processed, new SolverWorkspace());
+  }
+
+  @Override
+  public Result solve(GridGraph2D grid,
+                      PositiveWeightFunction weights,
+                      int source,
+                      int destination,
+                      VertexLabelling<Boolean> processed,
+                      SolverWorkspace workspace) {
+    workspace.reset(grid.nbVertices());
+    Queues queues = spareQueues.getAndSet(null);
+    if (queues == null || queues.nbVertices() != grid.nbVertices() || queues.width() != grid.width())
+      queues = new Queues(grid.nbVertices(), grid.width(), new IndexedHeap[nbWorkers]);
+    Search search = new Search(grid, weights, destination, processed, workspace, queues.heaps());
+    run(search, source);
+
+    for (IndexedHeap heap : queues.heaps())
+      heap.clear();
+    spareQueues.set(queues);
+
+    Throwable failure = search.failure.get();
+    if (failure instanceof RuntimeException e)
+      throw e;
+    if (failure != null)
+      throw (Error) failure;
+
+    int treated = 0;
+    for (Worker worker : search.workers)
+      treated += worker.treated;
+    if (search.incumbent.get() == Integer.MAX_VALUE)
+      return new Result(Collections.emptyList(), 0, 0);
+    return AStar.buildResult(workspace, source, destination, treated);
+  }
+
+  // Helpers
+
+  /**
+   * Runs the workers of a search until it is over, the first one on the calling thread. One search at a time: a search
+   * whose workers would wait for the threads taken by another one could never end.
+   */
+  private synchronized void run(Search search, int source) {
+    search.start(source);
+
+    Future<?>[] futures = new Future<?>[nbWorkers];
+    for (int w = 1; w < nbWorkers; ++w)
+      futures[w] = pool.submit(search.workers[w]);
+    search.workers[0].run();
+
+    // The search is over once the first worker returns, the others are stopping
+    boolean interrupted = false;
+    for (int w = 1; w < nbWorkers; ++w) {
+      while (!futures[w].isDone()) {
+        try {
+          futures[w].get();
+        } catch (InterruptedException e) {
+          interrupted = true;
+        } catch (ExecutionException e) {
+          // Failures are caught and recorded by the workers themselves
+          search.fail(e.getCause());
+        }
+      }
+    }
+    if (interrupted)
+      Thread.currentThread().interrupt();
+  }
+
+  private static int checkWorkers(int nbWorkers) {
+    if (nbWorkers <= 0)
+      throw new IllegalArgumentException("Number of workers: " + nbWorkers + " must be positive");
+    return nbWorkers;
+  }
+
+  /**
+   * @return the daemon threads of the workers but the first, or null for a single worker
+   */
+  private static ThreadPoolExecutor createPool(int nbWorkers) {
+    if (nbWorkers == 1)
+      return null;
+
+    AtomicInteger nbThreads = new AtomicInteger();
+    ThreadPoolExecutor pool = new ThreadPoolExecutor(nbWorkers - 1, nbWorkers - 1, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+        new LinkedBlockingQueue<>(), runnable -> {
+          Thread thread = new Thread(runnable, "hda-worker-" + nbThreads.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        });
+    pool.allowCoreThreadTimeOut(true);
+    return pool;
+  }
+
+  /**
+   * State of a query shared by the workers.
+   */
+  private final class Search {
+    final GridGraph2D grid;
+    final PositiveWeightFunction weights;
+    final int destination;
+    final VertexLabelling<Boolean> processed;
+    final SolverWorkspace workspace;
+    final AStar.HeuristicFunction heuristicFunction = aStar.heuristicFunction();
+
+    final int width;
+    final int height;
+    final int tilesPerRow;
+
+    /** Worker owning each tile, and rank of the tile among those of its worker */
+    final int[] tileOwners;
+    final int[] tileRanks;
+
+    final Worker[] workers = new Worker[nbWorkers];
+
+    /** Cost of the best path found so far */
+    final AtomicInteger incumbent = new AtomicInteger(Integer.MAX_VALUE);
+
+    /** Busy workers plus batches in flight, the search is over when it reaches 0 */
+    final AtomicLong pending = new AtomicLong(nbWorkers);
+
+    volatile boolean done = false;
+
+    /** First exception thrown by a worker */
+    final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    Search(GridGraph2D grid, PositiveWeightFunction weights, int destination, VertexLabelling<Boolean> processed,
+           SolverWorkspace workspace, IndexedHeap[] heaps) {
+      this.grid = grid;
+      this.weights = weights;
+      this.destination = destination;
+      this.processed = processed;
+      this.workspace = workspace;
+
+      this.width = grid.width();
+      this.height = grid.nbVertices() / width;
+      this.tilesPerRow = (width + TILE - 1) / TILE;
+      int nbTiles = tilesPerRow * ((height + TILE - 1) / TILE);
+
+      tileOwners = new int[nbTiles];
+      tileRanks = new int[nbTiles];
+      int[] nbOwned = new int[nbWorkers];
+      for (int t = 0; t < nbTiles; ++t) {
+        int owner = Math.floorMod(hash(t % tilesPerRow, t / tilesPerRow), nbWorkers);
+        tileOwners[t] = owner;
+        tileRanks[t] = nbOwned[owner]++;
+      }
+
+      int[][] ownedTiles = new int[nbWorkers][];
+      for (int w = 0; w < nbWorkers; ++w)
+        ownedTiles[w] = new int[nbOwned[w]];
+      for (int t = 0; t < nbTiles; ++t)
+        ownedTiles[tileOwners[t]][tileRanks[t]] = t;
+
+      for (int w = 0; w < nbWorkers; ++w) {
+        if (heaps[w] == null)
+          heaps[w] = new IndexedHeap(ownedTiles[w].length * TILE * TILE);
+        workers[w] = new Worker(this, w, ownedTiles[w], heaps[w]);
+      }
+    }
+
+    /**
+     * Ends the search, waking up the idle workers.
+     */
+    void finish() {
+      done = true;
+      for (Worker worker : workers) {
+        if (worker.parked)
+          LockSupport.unpark(worker.thread);
+      }
+    }
+
+    /**
+     * Records a failure, the first one being rethrown, and ends the search.
+     */
+    void fail(Throwable t) {
+      failure.compareAndSet(null, t);
+      finish();
+    }
+
+    void start(int source) {
+      Worker owner = workers[owner(source)];
+      owner.relax(source, 0, SolverWorkspace.NO_PREDECESSOR);
+    }
+
+    int tile(int v) {
+      return (v / width) / TILE * tilesPerRow + (v % width) / TILE;
+    }
+
+    int owner(int v) {
+      return tileOwners[tile(v)];
+    }
+
+    /** Index of a vertex in the queue of its owner */
+    int local(int v) {
+      return tileRanks[tile(v)] * TILE * TILE + (v / width) % TILE * TILE + (v % width) % TILE;
+    }
+
+    int heuristic(int v) {
+      return heuristicFunction.get(v % width, v / width, destination % width, destination / width, weights.minWeight());
+    }
+
+    private static int hash(int x, int y) {
+      int h = x * 0x9E3779B1 ^ y * 0x85EBCA6B;
+      return h ^ (h >>> 15);
+    }
+  }
+
+  /**
+   * A* on the vertices of the tiles of one worker.
+   */
+  private static final class Worker implements Runnable {
+    final Search search;
+    final int id;
+    final int[] ownedTiles;
+
+    /** Open vertices of the worker, by local index */
+    final IndexedHeap queue;
+
+    /** Batches received from the other workers */
+    final ConcurrentLinkedQueue<int[]> mailbox = new ConcurrentLinkedQueue<>();
+
+    /** Partial batch towards each worker, and its size */
+    final int[][] outboxes;
+    final int[] outboxSizes;
+
+    /** Neighbors of the vertex being expanded */
+    final int[] neighbors = new int[4];
+
+    int treated = 0;
+
+    /** Thread running the worker, and whether it is parked waiting for a batch */
+    volatile Thread thread;
+    volatile boolean parked = false;
+
+    Worker(Search search, int id, int[] ownedTiles, IndexedHeap queue) {
+      this.search = search;
+      this.id = id;
+      this.ownedTiles = ownedTiles;
+      this.queue = queue;
+      this.outboxes = new int[search.workers.length][3 * BATCH];
+      this.outboxSizes = new int[search.workers.length];
+    }
+
+    @Override
+    public void run() {
+      thread = Thread.currentThread();
+      try {
+        search();
+      } catch (Throwable t) {
+        search.fail(t);
+      } finally {
+        search.finish();
+      }
+    }
+
+    private void search() {
+      boolean busy = true;
+      int idleSpins = 0;
+
+      while (!search.done) {
+        int[] batch;
+        while ((batch = mailbox.poll()) != null) {
+          for (int i = 0; i < batch.length; i += 3)
+            relax(batch[i], batch[i + 1], batch[i + 2]);
+          // An idle worker takes over the count of the batch
+          if (busy)
+            search.pending.decrementAndGet();
+          busy = true;
+        }
+
+        if (hasWork()) {
+          for (int i = 0; i < FLUSH_PERIOD && hasWork(); ++i)
+            expand(vertex(queue.poll()));
+          flush();
+          continue;
+        }
+
+        flush();
+        if (busy) {
+          busy = false;
+          idleSpins = 0;
+          if (search.pending.decrementAndGet() == 0)
+            search.finish();
+        } else if (idleSpins < SPINS) {
+          ++idleSpins;
+          Thread.onSpinWait();
+        } else {
+          // Published before checking again, so that a sender or the end of the search sees it and wakes it up
+          parked = true;
+          if (mailbox.isEmpty() && !search.done)
+            LockSupport.park(this);
+          parked = false;
+        }
+      }
+    }
+
+    /**
+     * Records a cost for one of the vertices of the worker, (re)opening it if it is an improvement.
+     */
+    void relax(int v, int cost, int predecessor) {
+      SolverWorkspace workspace = search.workspace;
+      if (!workspace.isDiscovered(v))
+        workspace.discover(v, search.heuristic(v));
+      if (cost >= workspace.cost(v)) return;
+
+      workspace.update(v, cost, predecessor);
+      if (v == search.destination)
+        search.incumbent.set(cost);
+
+      int local = search.local(v);
+      int f = cost + workspace.heuristic(v);
+      if (queue.contains(local))
+        queue.decreaseKey(local, f);
+      else
+        queue.insert(local, f);
+    }
+
+    private boolean hasWork() {
+      return !queue.isEmpty() && queue.peekKey() < search.incumbent.get();
+    }
+
+    private void expand(int v) {
+      search.processed.setLabel(v, true);
+      ++treated;
+
+      int cost = search.workspace.cost(v);
+      int incumbent = search.incumbent.get();
+      int nbNeighbors = search.grid.neighbors(v, neighbors);
+      for (int i = 0; i < nbNeighbors; ++i) {
+        int neighbor = neighbors[i];
+        int newCost = cost + search.weights.get(v, neighbor);
+        int owner = search.owner(neighbor);
+        if (owner == id) {
+          relax(neighbor, newCost, v);
+        } else if (newCost + search.heuristic(neighbor) < incumbent) {
+          int[] outbox = outboxes[owner];
+          int size = outboxSizes[owner];
+          outbox[size] = neighbor;
+          outbox[size + 1] = newCost;
+          outbox[size + 2] = v;
+          outboxSizes[owner] = size + 3;
+          if (size + 3 == outbox.length)
+            send(owner);
+        }
+      }
+    }
+
+    private void flush() {
+      for (int w = 0; w < outboxSizes.length; ++w) {
+        if (outboxSizes[w] > 0)
+          send(w);
+      }
+    }
+
+    private void send(int w) {
+      // Counted before being visible, so that the counter never misses it
+      search.pending.incrementAndGet();
+      Worker receiver = search.workers[w];
+      receiver.mailbox.add(Arrays.copyOf(outboxes[w], outboxSizes[w]));
+      outboxSizes[w] = 0;
+      if (receiver.parked)
+        LockSupport.unpark(receiver.thread);
+    }
+
+    /** Vertex of a local index */
+    private int vertex(int local) {
+      int tile = ownedTiles[local / (TILE * TILE)];
+      int offset = local % (TILE * TILE);
+      int x = tile % search.tilesPerRow * TILE + offset % TILE;
+      int y = tile / search.tilesPerRow * TILE + offset / TILE;
+      return y * search.width + x;
+    }
+  }
+}
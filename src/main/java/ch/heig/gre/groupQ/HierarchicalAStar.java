@@ -0,0 +1,652 @@
+package ch.heig.gre.groupQ;
+
+import ch.heig.gre.graph.GraphObserver;
+import ch.heig.gre.graph.GridGraph2D;
+import ch.heig.gre.graph.PositiveWeightFunction;
+import ch.heig.gre.graph.VertexLabelling;
+import ch.heig.gre.maze.GridMazeSolver;
+import ch.heig.gre.maze.IndexedHeap;
+import ch.heig.gre.maze.SolverWorkspace;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.stream.IntStream;
+
+/**
+ * Hierarchical path-finding A* (HPA*) over a maze split into square clusters.
+ *
+ * Each border between two adjacent clusters is scanned for entrances (runs of consecutive passages crossing it, linked
+ * along the border): an entrance gets one transition in its middle, or one at each end when it is wide. Both cells of
+ * a transition are nodes of the abstract graph, linked by the passage, and the distances between the nodes of a
+ * cluster (staying in the cluster) are precomputed. A query connects the source and the destination to the nodes of their cluster, runs A*
+ * on the abstract graph, then refines each abstract edge into maze cells only when the path is read.
+ *
+ * Paths are near-optimal: they cross borders at transitions only and are optimal within clusters. Edge weights must be
+ * symmetric. When the maze changes, only the clusters (and the border) around the changed wall need to be refreshed:
+ * the index can subscribe to an {@link ch.heig.gre.graph.ObservableGraph}, or be notified through
+ * {@link #onEdgeAdded}/{@link #onEdgeRemoved} after {@link ch.heig.gre.maze.MazeBuilder#removeWall}/
+ * {@link ch.heig.gre.maze.MazeBuilder#addWall}. Refreshes and queries must not run concurrently.
+ */
+public final class HierarchicalAStar implements GridMazeSolver, GraphObserver {
+  /** Entrances at least this wide get a transition at each end instead of a single one */
+  private static final int WIDE_ENTRANCE = 6;
+
+  /** Distance between two vertices not connected */
+  private static final int UNREACHABLE = Integer.MAX_VALUE;
+
+  /** Search without a target, settling the whole cluster */
+  private static final int NO_TARGET = -1;
+
+  private final GridGraph2D grid;
+  private final PositiveWeightFunction weights;
+  private final int clusterSize;
+  private final int clustersX;
+  private final int clustersY;
+
+  // Abstract nodes, recycled when a border is refreshed: their cell, cluster, the node on the other side of their
+  // transition and their position in the node list of their cluster
+  private int[] nodeCell = new int[16];
+  private int[] nodeCluster = new int[16];
+  private int[] nodePartner = new int[16];
+  private int[] nodePosition = new int[16];
+  private int nbNodes = 0;
+  private int[] freeNodes = new int[16];
+  private int nbFreeNodes = 0;
+
+  /** Nodes of each border, first the vertical borders (between horizontal neighbors), then the horizontal ones */
+  private final int[][] borderNodes;
+
+  /** Nodes of each cluster */
+  private final int[][] clusterNodes;
+
+  // Abstract edges within each cluster, in compressed rows: those of the node at position i are in
+  // [first[i], first[i + 1][, and lead to the node at position target[e] with the weight weight[e]
+  private final int[][] clusterFirst;
+  private final int[][] clusterTarget;
+  private final int[][] clusterWeight;
+
+  // Cluster searches of the build, one workspace per thread
+  private final ThreadLocal<SolverWorkspace> buildWorkspaces = ThreadLocal.withInitial(SolverWorkspace::new);
+
+  private HierarchicalAStar(GridGraph2D grid, PositiveWeightFunction weights, int clusterSize) {
+    this.grid = grid;
+    this.weights = weights;
+    this.clusterSize = clusterSize;
+    this.clustersX = (grid.width() + clusterSize - 1) / clusterSize;
+    this.clustersY = (grid.height() + clusterSize - 1) / clusterSize;
+    this.borderNodes = new int[(clustersX - 1) * clustersY + clustersX * (clustersY - 1)][];
+    this.clusterNodes = new int[clustersX * clustersY][];
+    this.clusterFirst = new int[clustersX * clustersY][];
+    this.clusterTarget = new int[clustersX * clustersY][];
+    this.clusterWeight = new int[clustersX * clustersY][];
+  }
+
+  /**
+   * Builds the abstract graph of a maze.
+   * @param grid the maze, kept to refine paths and refresh clusters
+   * @param weights symmetric weight function of the maze
+   * @param clusterSize side of the clusters, in cells
+   * @return the hierarchical solver
+   * @throws IllegalArgumentException if clusterSize is not positive
+   */
+  public static HierarchicalAStar build(GridGraph2D grid, PositiveWeightFunction weights, int clusterSize) {
+    if (clusterSize <= 0)
+      throw new IllegalArgumentException("Cluster size: " + clusterSize + " must be positive");
+
+    HierarchicalAStar hpa = new HierarchicalAStar(grid, weights, clusterSize);
+
+    // Nodes are allocated sequentially, then clusters are independent from each other
+    for (int border = 0; border < hpa.borderNodes.length; ++border)
+      hpa.computeBorder(border);
+    IntStream.range(0, hpa.clusterNodes.length).parallel().forEach(hpa::computeCluster);
+
+    return hpa;
+  }
+
+  /**
+   * @return number of nodes of the abstract graph
+   */
+  public int nbNodes() {
+    return nbNodes - nbFreeNodes;
+  }
+
+  @Override
+  public Result solve(GridGraph2D grid,
+                      PositiveWeightFunction weights,
+                      int source,
+                      int destination,
+                      VertexLabelling<Boolean> processed) {
+    return solve(grid, weights, source, destination, processed, new SolverWorkspace());
+  }
+
+  @Override
+  public Result solve(GridGraph2D grid,
+                      PositiveWeightFunction weights,
+                      int source,
+                      int destination,
+                      VertexLabelling<Boolean> processed,
+                      SolverWorkspace workspace) {
+    if (grid.nbVertices() != this.grid.nbVertices())
+      throw new IllegalArgumentException("The abstract graph was built on a grid of " + this.grid.nbVertices() + " vertices");
+
+    Plan plan = plan(source, destination, processed, workspace);
+    if (!plan.hasNext())
+      return new Result(Collections.emptyList(), 0, 0);
+
+    List<Integer> path = new ArrayList<>();
+    while (plan.hasNext())
+      path.add(plan.nextInt());
+
+    return new Result(path, path.size(), plan.treatments());
+  }
+
+  /**
+   * Searches the abstract graph. The returned plan refines its abstract edges into maze cells as it is iterated, using
+   * the workspace (which must not be used by another search meanwhile).
+   * @param source source vertex
+   * @param destination destination vertex
+   * @param processed labelling marking the cells settled by cluster searches and the nodes settled by the abstract one
+   * @param workspace workspace of the query
+   * @return the plan, empty if there is no path
+   */
+  public Plan plan(int source, int destination, VertexLabelling<Boolean> processed, SolverWorkspace workspace) {
+    SolverWorkspace local = workspace.auxiliary();
+    int sourceCluster = clusterOf(source);
+    int destinationCluster = clusterOf(destination);
+
+    // Connect the source and the destination to the nodes of their cluster
+    int treated = searchCluster(local, sourceCluster, source, NO_TARGET, processed);
+    int[] sourceCosts = nodeCosts(local, sourceCluster);
+    int direct = sourceCluster == destinationCluster ? local.cost(localIndex(sourceCluster, destination)) : UNREACHABLE;
+    treated += searchCluster(local, destinationCluster, destination, NO_TARGET, processed);
+    int[] destinationCosts = nodeCosts(local, destinationCluster);
+
+    // Temporary nodes of the source and destination
+    int sourceNode = nbNodes;
+    int destinationNode = nbNodes + 1;
+
+    workspace.reset(nbNodes + 2);
+    IndexedHeap queue = workspace.queue();
+    workspace.discover(sourceNode, 0);
+    workspace.update(sourceNode, 0, SolverWorkspace.NO_PREDECESSOR);
+    queue.insert(sourceNode, 0);
+
+    while (!queue.isEmpty()) {
+      int node = queue.poll();
+      if (node == destinationNode) break;
+      ++treated;
+
+      int cost = workspace.cost(node);
+      if (node == sourceNode) {
+        int[] nodes = clusterNodes[sourceCluster];
+        for (int i = 0; i < nodes.length; ++i)
+          relax(workspace, node, nodes[i], cost, sourceCosts[i], destination);
+        relax(workspace, node, destinationNode, cost, direct, destination);
+        continue;
+      }
+
+      processed.setLabel(nodeCell[node], true);
+      int cluster = nodeCluster[node];
+      int position = nodePosition[node];
+      int partner = nodePartner[node];
+      relax(workspace, node, partner, cost, weights.get(nodeCell[node], nodeCell[partner]), destination);
+
+      int[] nodes = clusterNodes[cluster];
+      int[] first = clusterFirst[cluster];
+      int[] targets = clusterTarget[cluster];
+      int[] edgeWeights = clusterWeight[cluster];
+      for (int e = first[position]; e < first[position + 1]; ++e)
+        relax(workspace, node, nodes[targets[e]], cost, edgeWeights[e], destination);
+      if (cluster == destinationCluster)
+        relax(workspace, node, destinationNode, cost, destinationCosts[position], destination);
+    }
+
+    if (!workspace.isDiscovered(destinationNode) || workspace.cost(destinationNode) == UNREACHABLE)
+      return new Plan(new int[0], UNREACHABLE, treated, local, processed);
+
+    // Cells of the abstract path, from the source to the destination
+    List<Integer> waypoints = new ArrayList<>();
+    for (int node = workspace.predecessor(destinationNode); node != sourceNode; node = workspace.predecessor(node))
+      waypoints.add(nodeCell[node]);
+    waypoints.add(source);
+    Collections.reverse(waypoints);
+    waypoints.add(destination);
+
+    return new Plan(waypoints.stream().mapToInt(Integer::intValue).toArray(), workspace.cost(destinationNode),
+        treated, local, processed);
+  }
+
+  @Override
+  public void onEdgeAdded(int u, int v) {
+    refresh(u, v);
+  }
+
+  @Override
+  public void onEdgeRemoved(int u, int v) {
+    refresh(u, v);
+  }
+
+  /**
+   * Abstract path, refined into maze cells one abstract edge at a time as it is iterated.
+   */
+  public final class Plan implements PrimitiveIterator.OfInt {
+    private final int[] waypoints;
+    private final int cost;
+    private final SolverWorkspace workspace;
+    private final VertexLabelling<Boolean> processed;
+    private int treated;
+
+    // Index of the next waypoint to refine towards, and the refined cells not yet returned
+    private int nextWaypoint = 0;
+    private int[] cells = new int[0];
+    private int nextCell = 0;
+
+    private Plan(int[] waypoints, int cost, int treated, SolverWorkspace workspace, VertexLabelling<Boolean> processed) {
+      this.waypoints = waypoints;
+      this.cost = cost;
+      this.treated = treated;
+      this.workspace = workspace;
+      this.processed = processed;
+    }
+
+    /**
+     * @return cost of the abstract path, which is the cost of the refined one
+     */
+    public int cost() {
+      return cost;
+    }
+
+    /**
+     * @return the cells of the abstract path (source, transitions, destination)
+     */
+    public int[] waypoints() {
+      return waypoints.clone();
+    }
+
+    /**
+     * @return number of vertices treated so far, including the refinements done
+     */
+    public int treatments() {
+      return treated;
+    }
+
+    @Override
+    public boolean hasNext() {
+      // Transitions may share a cell, some abstract edges have no cell to add
+      while (nextCell == cells.length && nextWaypoint < waypoints.length)
+        refineNext();
+      return nextCell < cells.length;
+    }
+
+    @Override
+    public int nextInt() {
+      if (!hasNext())
+        throw new NoSuchElementException();
+      return cells[nextCell++];
+    }
+
+    private void refineNext() {
+      int to = waypoints[nextWaypoint];
+      nextCell = 0;
+
+      if (nextWaypoint++ == 0) {
+        cells = new int[]{to};
+        return;
+      }
+
+      int from = waypoints[nextWaypoint - 2];
+      int cluster = clusterOf(from);
+      if (from == to) {
+        cells = new int[0];
+      } else if (cluster != clusterOf(to)) {
+        // Transition between two clusters
+        cells = new int[]{to};
+      } else {
+        treated += searchCluster(workspace, cluster, from, to, processed);
+        cells = clusterPath(workspace, cluster, from, to);
+      }
+    }
+  }
+
+  // Helpers
+
+  private int clusterOf(int cell) {
+    int width = grid.width();
+    return cell / width / clusterSize * clustersX + cell % width / clusterSize;
+  }
+
+  private int clusterWidth(int cluster) {
+    return Math.min(clusterSize, grid.width() - cluster % clustersX * clusterSize);
+  }
+
+  private int clusterHeight(int cluster) {
+    return Math.min(clusterSize, grid.height() - cluster / clustersX * clusterSize);
+  }
+
+  /**
+   * @return index of a cell of the cluster among the cells of the cluster, row by row
+   */
+  private int localIndex(int cluster, int cell) {
+    int width = grid.width();
+    return (cell % width - cluster % clustersX * clusterSize)
+        + (cell / width - cluster / clustersX * clusterSize) * clusterWidth(cluster);
+  }
+
+  private int cellOf(int cluster, int local) {
+    int clusterWidth = clusterWidth(cluster);
+    return cluster % clustersX * clusterSize + local % clusterWidth
+        + (cluster / clustersX * clusterSize + local / clusterWidth) * grid.width();
+  }
+
+  private void relax(SolverWorkspace workspace, int node, int neighbor, int cost, int weight, int destination) {
+    if (weight == UNREACHABLE) return;
+
+    int newCost = cost + weight;
+    if (!workspace.isDiscovered(neighbor))
+      workspace.discover(neighbor, neighbor < nbNodes ? manhattan(nodeCell[neighbor], destination) : 0);
+
+    if (newCost < workspace.cost(neighbor)) {
+      workspace.update(neighbor, newCost, node);
+      int priority = newCost + workspace.heuristic(neighbor);
+      if (workspace.queue().contains(neighbor)) {
+        workspace.queue().decreaseKey(neighbor, priority);
+      } else {
+        workspace.queue().insert(neighbor, priority);
+      }
+    }
+  }
+
+  // Manhattan distance scaled by the smallest weight
+  private int manhattan(int cell, int destination) {
+    int width = grid.width();
+    return weights.minWeight() * (Math.abs(cell % width - destination % width) + Math.abs(cell / width - destination / width));
+  }
+
+  /**
+   * Search restricted to a cluster, on local indices: A* towards the target, or Dijkstra over the whole cluster
+   * without one.
+   * @return number of cells treated
+   */
+  private int searchCluster(SolverWorkspace workspace, int cluster, int source, int target, VertexLabelling<Boolean> processed) {
+    workspace.reset(clusterWidth(cluster) * clusterHeight(cluster));
+    IndexedHeap queue = workspace.queue();
+
+    int start = localIndex(cluster, source);
+    workspace.discover(start, target == NO_TARGET ? 0 : manhattan(source, target));
+    workspace.update(start, 0, SolverWorkspace.NO_PREDECESSOR);
+    queue.insert(start, workspace.heuristic(start));
+
+    int[] neighbors = new int[4];
+    int treated = 0;
+    while (!queue.isEmpty()) {
+      int current = queue.poll();
+      int cell = cellOf(cluster, current);
+      if (cell == target) break;
+
+      ++treated;
+      if (processed != null)
+        processed.setLabel(cell, true);
+
+      int nbNeighbors = grid.neighbors(cell, neighbors);
+      for (int i = 0; i < nbNeighbors; ++i) {
+        int neighborCell = neighbors[i];
+        if (clusterOf(neighborCell) != cluster) continue;
+
+        int neighbor = localIndex(cluster, neighborCell);
+        if (!workspace.isDiscovered(neighbor))
+          workspace.discover(neighbor, target == NO_TARGET ? 0 : manhattan(neighborCell, target));
+
+        int cost = workspace.cost(current) + weights.get(cell, neighborCell);
+        if (cost < workspace.cost(neighbor)) {
+          workspace.update(neighbor, cost, current);
+          int priority = cost + workspace.heuristic(neighbor);
+          if (queue.contains(neighbor)) {
+            queue.decreaseKey(neighbor, priority);
+          } else {
+            queue.insert(neighbor, priority);
+          }
+        }
+      }
+    }
+    return treated;
+  }
+
+  /**
+   * @return the cells of the path found by the last cluster search, from its source (excluded) to the target
+   */
+  private int[] clusterPath(SolverWorkspace workspace, int cluster, int source, int target) {
+    int length = 0;
+    int start = localIndex(cluster, source);
+    for (int v = localIndex(cluster, target); v != start; v = workspace.predecessor(v))
+      ++length;
+
+    int[] cells = new int[length];
+    for (int v = localIndex(cluster, target); v != start; v = workspace.predecessor(v))
+      cells[--length] = cellOf(cluster, v);
+    return cells;
+  }
+
+  /**
+   * @return the cost of the last cluster search to each node of the cluster
+   */
+  private int[] nodeCosts(SolverWorkspace workspace, int cluster) {
+    int[] nodes = clusterNodes[cluster];
+    int[] costs = new int[nodes.length];
+    for (int i = 0; i < nodes.length; ++i)
+      costs[i] = workspace.cost(localIndex(cluster, nodeCell[nodes[i]]));
+    return costs;
+  }
+
+  /**
+   * Lists the nodes of a cluster (those of its borders) and computes the distances between them. The edge between two
+   * nodes is left out when a shortest path between them goes through a third node (with two shorter edges), which
+   * keeps the abstract distances but makes the abstract graph much sparser.
+   */
+  private void computeCluster(int cluster) {
+    int x = cluster % clustersX;
+    int y = cluster / clustersX;
+    int vertical = (clustersX - 1) * clustersY;
+
+    int[][] borders = {
+        x > 0 ? borderNodes[y * (clustersX - 1) + x - 1] : null,
+        x < clustersX - 1 ? borderNodes[y * (clustersX - 1) + x] : null,
+        y > 0 ? borderNodes[vertical + (y - 1) * clustersX + x] : null,
+        y < clustersY - 1 ? borderNodes[vertical + y * clustersX + x] : null
+    };
+
+    int[] nodes = Arrays.stream(borders)
+        .filter(border -> border != null)
+        .flatMapToInt(Arrays::stream)
+        .filter(node -> nodeCluster[node] == cluster)
+        .toArray();
+
+    SolverWorkspace workspace = buildWorkspaces.get();
+    int k = nodes.length;
+    int[] distances = new int[k * k];
+    for (int i = 0; i < k; ++i) {
+      nodePosition[nodes[i]] = i;
+      searchCluster(workspace, cluster, nodeCell[nodes[i]], NO_TARGET, null);
+      for (int j = 0; j < k; ++j)
+        distances[i * k + j] = workspace.cost(localIndex(cluster, nodeCell[nodes[j]]));
+    }
+
+    int[] first = new int[k + 1];
+    int[] targets = new int[k * k];
+    int[] edgeWeights = new int[k * k];
+    int nbEdges = 0;
+    for (int i = 0; i < k; ++i) {
+      first[i] = nbEdges;
+      for (int j = 0; j < k; ++j) {
+        if (i != j && distances[i * k + j] != UNREACHABLE && !isRedundant(distances, k, i, j)) {
+          targets[nbEdges] = j;
+          edgeWeights[nbEdges++] = distances[i * k + j];
+        }
+      }
+    }
+    first[k] = nbEdges;
+
+    clusterNodes[cluster] = nodes;
+    clusterFirst[cluster] = first;
+    clusterTarget[cluster] = Arrays.copyOf(targets, nbEdges);
+    clusterWeight[cluster] = Arrays.copyOf(edgeWeights, nbEdges);
+  }
+
+  /**
+   * @return true if a shortest path from the node at position i to the one at position j goes through another node,
+   * both parts being strictly shorter
+   */
+  private static boolean isRedundant(int[] distances, int k, int i, int j) {
+    int distance = distances[i * k + j];
+    for (int m = 0; m < k; ++m) {
+      int toM = distances[i * k + m];
+      int fromM = distances[m * k + j];
+      if (toM != UNREACHABLE && fromM != UNREACHABLE && toM > 0 && fromM > 0 && toM + fromM == distance)
+        return true;
+    }
+    return false;
+  }
+
+  /**
+   * Finds the entrances of a border and creates the nodes of their transitions.
+   */
+  private void computeBorder(int border) {
+    int vertical = (clustersX - 1) * clustersY;
+    int width = grid.width();
+
+    // First cell of the crossings on the low side, step between crossings, offset to the other side and their number
+    int first;
+    int step;
+    int across;
+    int length;
+    if (border < vertical) {
+      int x = border % (clustersX - 1);
+      int y = border / (clustersX - 1);
+      first = y * clusterSize * width + (x + 1) * clusterSize - 1;
+      step = width;
+      across = 1;
+      length = Math.min(clusterSize, grid.height() - y * clusterSize);
+    } else {
+      int x = (border - vertical) % clustersX;
+      int y = (border - vertical) / clustersX;
+      first = ((y + 1) * clusterSize - 1) * width + x * clusterSize;
+      step = 1;
+      across = width;
+      length = Math.min(clusterSize, width - x * clusterSize);
+    }
+
+    // In a maze, neighboring crossings are only part of the same entrance if their cells are linked along the border
+    // on both sides, so that any crossing of an entrance reaches its transitions within both clusters
+    List<Integer> nodes = new ArrayList<>();
+    int runStart = -1;
+    for (int i = 0; i <= length; ++i) {
+      int cell = first + i * step;
+      boolean open = i < length && grid.areAdjacent(cell, cell + across);
+      boolean linked = open && runStart >= 0
+          && grid.areAdjacent(cell - step, cell) && grid.areAdjacent(cell - step + across, cell + across);
+
+      if (runStart >= 0 && !linked) {
+        int runLength = i - runStart;
+        if (runLength < WIDE_ENTRANCE) {
+          addTransition(nodes, first + (runStart + runLength / 2) * step, across);
+        } else {
+          addTransition(nodes, first + runStart * step, across);
+          addTransition(nodes, first + (i - 1) * step, across);
+        }
+        runStart = -1;
+      }
+      if (open && runStart < 0)
+        runStart = i;
+    }
+
+    borderNodes[border] = nodes.stream().mapToInt(Integer::intValue).toArray();
+  }
+
+  private void addTransition(List<Integer> nodes, int cell, int across) {
+    int low = newNode(cell);
+    int high = newNode(cell + across);
+    nodePartner[low] = high;
+    nodePartner[high] = low;
+    nodes.add(low);
+    nodes.add(high);
+  }
+
+  private int newNode(int cell) {
+    int node;
+    if (nbFreeNodes > 0) {
+      node = freeNodes[--nbFreeNodes];
+    } else {
+      if (nbNodes == nodeCell.length) {
+        nodeCell = Arrays.copyOf(nodeCell, 2 * nbNodes);
+        nodeCluster = Arrays.copyOf(nodeCluster, 2 * nbNodes);
+        nodePartner = Arrays.copyOf(nodePartner, 2 * nbNodes);
+        nodePosition = Arrays.copyOf(nodePosition, 2 * nbNodes);
+      }
+      node = nbNodes++;
+    }
+
+    nodeCell[node] = cell;
+    nodeCluster[node] = clusterOf(cell);
+    return node;
+  }
+
+  /**
+   * Recomputes what a wall between u and v may have changed: the borders whose entrances it may split or merge, and
+   * the clusters of these borders.
+   */
+  private void refresh(int u, int v) {
+    int clusterU = clusterOf(u);
+    int clusterV = clusterOf(v);
+
+    if (clusterU != clusterV) {
+      refreshBorder(clusterU, clusterV);
+      computeCluster(clusterV);
+      computeCluster(clusterU);
+      return;
+    }
+
+    // A wall along a border links or unlinks two of its crossings
+    int width = grid.width();
+    int x = u % width % clusterSize;
+    int y = u / width % clusterSize;
+    int neighbor = -1;
+    if (x == v % width % clusterSize) {
+      if (x == 0 && clusterU % clustersX > 0)
+        neighbor = clusterU - 1;
+      else if (x == clusterSize - 1 && clusterU % clustersX < clustersX - 1)
+        neighbor = clusterU + 1;
+    } else {
+      if (y == 0 && clusterU / clustersX > 0)
+        neighbor = clusterU - clustersX;
+      else if (y == clusterSize - 1 && clusterU / clustersX < clustersY - 1)
+        neighbor = clusterU + clustersX;
+    }
+
+    if (neighbor >= 0) {
+      refreshBorder(clusterU, neighbor);
+      computeCluster(neighbor);
+    }
+    computeCluster(clusterU);
+  }
+
+  /**
+   * Recreates the nodes of the border between two adjacent clusters, whose node lists must then be recomputed.
+   */
+  private void refreshBorder(int cluster, int neighbor) {
+    int low = Math.min(cluster, neighbor);
+    int high = Math.max(cluster, neighbor);
+    int border = high == low + clustersX
+        ? (clustersX - 1) * clustersY + low
+        : low / clustersX * (clustersX - 1) + low % clustersX;
+
+    for (int node : borderNodes[border]) {
+      if (nbFreeNodes == freeNodes.length)
+        freeNodes = Arrays.copyOf(freeNodes, 2 * nbFreeNodes);
+      freeNodes[nbFreeNodes++] = node;
+    }
+    computeBorder(border);
+  }
+}
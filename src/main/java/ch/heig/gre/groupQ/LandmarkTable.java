@@ -0,0 +1,227 @@
+package ch.heig.gre.groupQ;
+
+import ch.heig.gre.graph.GridGraph2D;
+import ch.heig.gre.graph.PositiveWeightFunction;
+import ch.heig.gre.maze.IndexedHeap;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Exact distances from a few landmark vertices to every vertex of a maze, used by the ALT heuristic (A*, Landmarks,
+ * Triangle inequality).
+ *
+ * For any landmark L, the triangle inequality gives |d(L, t) - d(L, v)| <= d(v, t): the largest of these bounds over
+ * all landmarks is an admissible and consistent heuristic, usually much tighter than geometric ones on mazes. Edge
+ * weights must be symmetric (the maze is undirected).
+ *
+ * The table is computed once for a given maze and weight function, and can then be shared by any number of queries
+ * (and threads) on it, through {@link AStar#AStar(LandmarkTable)}. Distances are stored vertex by vertex, so that the
+ * bounds of all landmarks for a vertex are contiguous in memory.
+ */
+public final class LandmarkTable {
+  /** Distance to a landmark which can't be reached */
+  public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+  /**
+   * How landmarks are chosen.
+   */
+  public enum Selection {
+    /**
+     * Evenly spread along the border of the grid. Every distance is computed in parallel.
+     */
+    PERIMETER,
+
+    /**
+     * Each landmark is the vertex farthest from the already chosen ones (the first one being the farthest from the
+     * center of the grid). Better spread on irregular mazes, but each choice requires the previous distances, so the
+     * distances are computed one landmark after the other.
+     */
+    FARTHEST
+  }
+
+  private final int width;
+  private final int nbVertices;
+  private final int[] landmarks;
+
+  // Distance from landmark i to vertex v at index v * landmarks.length + i
+  private final int[] distances;
+
+  private LandmarkTable(int width, int nbVertices, int[] landmarks, int[] distances) {
+    this.width = width;
+    this.nbVertices = nbVertices;
+    this.landmarks = landmarks;
+    this.distances = distances;
+  }
+
+  /**
+   * Builds the landmark table of a maze.
+   * @param grid the maze
+   * @param weights symmetric weight function of the maze
+   * @param nbLandmarks number of landmarks
+   * @param selection how landmarks are chosen
+   * @return the table
+   * @throws IllegalArgumentException if nbLandmarks is not positive
+   */
+  public static LandmarkTable build(GridGraph2D grid, PositiveWeightFunction weights, int nbLandmarks, Selection selection) {
+    if (nbLandmarks <= 0)
+      throw new IllegalArgumentException("Number of landmarks: " + nbLandmarks + " must be positive");
+
+    int[] landmarks;
+    int[][] landmarkDistances;
+
+    if (selection == Selection.PERIMETER) {
+      landmarks = perimeterLandmarks(grid, nbLandmarks);
+      // One Dijkstra per landmark, each writing in its own array
+      landmarkDistances = Arrays.stream(landmarks)
+          .parallel()
+          .mapToObj(landmark -> distancesFrom(grid, weights, landmark))
+          .toArray(int[][]::new);
+    } else {
+      landmarks = new int[nbLandmarks];
+      landmarkDistances = new int[nbLandmarks][];
+
+      // Distance from each vertex to the nearest chosen landmark
+      int[] nearest = distancesFrom(grid, weights, grid.width() / 2 + grid.height() / 2 * grid.width());
+      for (int i = 0; i < nbLandmarks; ++i) {
+        landmarks[i] = farthest(nearest);
+        landmarkDistances[i] = distancesFrom(grid, weights, landmarks[i]);
+
+        int[] current = landmarkDistances[i];
+        for (int v = 0; v < nearest.length; ++v)
+          nearest[v] = i == 0 ? current[v] : Math.min(nearest[v], current[v]);
+      }
+    }
+
+    // Vertex-major layout, transposed in parallel by vertex ranges
+    int k = landmarks.length;
+    int[] distances = new int[k * grid.nbVertices()];
+    IntStream.range(0, grid.nbVertices()).parallel().forEach(v -> {
+      for (int i = 0; i < k; ++i)
+        distances[v * k + i] = landmarkDistances[i][v];
+    });
+
+    return new LandmarkTable(grid.width(), grid.nbVertices(), landmarks, distances);
+  }
+
+  /**
+   * Lower bound of the distance between two vertices, according to the triangle inequality.
+   * @param v a vertex
+   * @param destination another vertex
+   * @return the largest |d(L, destination) - d(L, v)| among landmarks reaching both vertices, 0 if there is none
+   */
+  public int lowerBound(int v, int destination) {
+    int k = landmarks.length;
+    int vOffset = v * k;
+    int destinationOffset = destination * k;
+
+    int bound = 0;
+    for (int i = 0; i < k; ++i) {
+      int toV = distances[vOffset + i];
+      int toDestination = distances[destinationOffset + i];
+      if (toV != UNREACHABLE && toDestination != UNREACHABLE)
+        bound = Math.max(bound, Math.abs(toDestination - toV));
+    }
+    return bound;
+  }
+
+  /**
+   * @param landmark index of a landmark
+   * @param v a vertex
+   * @return the distance from the landmark to v, {@link #UNREACHABLE} if there is no path
+   */
+  public int distance(int landmark, int v) {
+    return distances[v * landmarks.length + landmark];
+  }
+
+  /**
+   * @return a copy of the landmark vertices
+   */
+  public int[] landmarks() {
+    return landmarks.clone();
+  }
+
+  /**
+   * @return width of the grid the table was built on
+   */
+  public int width() {
+    return width;
+  }
+
+  /**
+   * @return number of vertices of the grid the table was built on
+   */
+  public int nbVertices() {
+    return nbVertices;
+  }
+
+  // Helpers
+
+  /**
+   * Spreads landmarks evenly along the border of the grid, clockwise from the top left corner.
+   */
+  private static int[] perimeterLandmarks(GridGraph2D grid, int nbLandmarks) {
+    int width = grid.width();
+    int height = grid.height();
+    int perimeter = Math.max(2 * (width + height) - 4, 1);
+
+    return IntStream.range(0, nbLandmarks)
+        .map(i -> {
+          int position = (int) ((long) i * perimeter / nbLandmarks);
+          if (position < width) return position;
+          position -= width - 1;
+          if (position < height) return position * width + width - 1;
+          position -= height - 1;
+          if (position < width) return (height - 1) * width + width - 1 - position;
+          position -= width - 1;
+          return Math.max(height - 1 - position, 0) * width;
+        })
+        .distinct()
+        .toArray();
+  }
+
+  /**
+   * @return the reachable vertex with the largest distance
+   */
+  private static int farthest(int[] distances) {
+    int farthest = 0;
+    for (int v = 0; v < distances.length; ++v) {
+      if (distances[v] != UNREACHABLE && (distances[farthest] == UNREACHABLE || distances[v] > distances[farthest]))
+        farthest = v;
+    }
+    return farthest;
+  }
+
+  /**
+   * Dijkstra from a landmark to every vertex.
+   * @return the distance from the landmark to each vertex, {@link #UNREACHABLE} if there is no path
+   */
+  private static int[] distancesFrom(GridGraph2D grid, PositiveWeightFunction weights, int landmark) {
+    int[] distances = new int[grid.nbVertices()];
+    Arrays.fill(distances, UNREACHABLE);
+    distances[landmark] = 0;
+
+    IndexedHeap queue = new IndexedHeap(grid.nbVertices());
+    queue.insert(landmark, 0);
+
+    int[] neighbors = new int[4];
+    while (!queue.isEmpty()) {
+      int current = queue.poll();
+
+      int nbNeighbors = grid.neighbors(current, neighbors);
+      for (int i = 0; i < nbNeighbors; ++i) {
+        int neighbor = neighbors[i];
+        int distance = distances[current] + weights.get(current, neighbor);
+        if (distance < distances[neighbor]) {
+          if (queue.contains(neighbor)) {
+            queue.decreaseKey(neighbor, distance);
+          } else {
+            queue.insert(neighbor, distance);
+          }
+          distances[neighbor] = distance;
+        }
+      }
+    }
+    return distances;
+  }
+}
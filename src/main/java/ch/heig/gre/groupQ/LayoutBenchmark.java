@@ -0,0 +1,156 @@
+package ch.heig.gre.groupQ;
+
+import ch.heig.gre.graph.Edge;
+import ch.heig.gre.graph.FullGridGraph;
+import ch.heig.gre.graph.GridGraph;
+import ch.heig.gre.graph.PositiveWeightFunction;
+import ch.heig.gre.graph.VertexLayout;
+import ch.heig.gre.maze.BoolVertexLabelling;
+import ch.heig.gre.maze.GridMazeSolver;
+import ch.heig.gre.maze.SolverWorkspace;
+import ch.heig.gre.maze.impl.GridMazeBuilder;
+import ch.heig.gre.maze.impl.MazeTuner;
+import ch.heig.gre.maze.impl.ShenaniganWeightFunction;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Benchmark of the {@link VertexLayout}s: for each grid side, times the {@link DfsGenerator} on a {@link GridGraph} of
+ * each layout, then A* with the Manhattan heuristic on the same maze stored in each layout, the
+ * {@link SolverWorkspace} sharing the layout of the grid.
+ *
+ * Each layout generates its own maze, the generator not being seeded; the searches all run on the first one, copied in
+ * the other layouts, with walls removed as in the "peu ouvert" experiment, random weights and the same queries.
+ * Usage: {@code LayoutBenchmark [queries per side] [sides...]}. The largest grids need a large heap: about 40 bytes
+ * per cell, 16 GB for a side of 20000.
+ */
+public final class LayoutBenchmark {
+  /** Default number of A* queries for each side */
+  private static final int DEFAULT_QUERIES = 5;
+
+  /** Default grid sides */
+  private static final int[] DEFAULT_SIDES = {1000, 5000, 10000, 20000};
+
+  /** Side of the grids generated in each layout to warm up the JIT */
+  private static final int WARMUP_SIDE = 500;
+
+  /** Walls removal probability of the searched mazes */
+  private static final double WALL_REMOVAL = 0.01;
+
+  /** Weights of the cells, drawn in [MIN_WEIGHT, MAX_WEIGHT] */
+  private static final int MIN_WEIGHT = 2;
+  private static final int MAX_WEIGHT = 20;
+
+  private static final String CSV = "layout_benchmark.csv";
+
+  private LayoutBenchmark() {}
+
+  public static void main(String[] args) {
+    int queries = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_QUERIES;
+    int[] sides = DEFAULT_SIDES;
+    if (args.length > 1) {
+      sides = new int[args.length - 1];
+      for (int i = 1; i < args.length; ++i)
+        sides[i - 1] = Integer.parseInt(args[i]);
+    }
+
+    Random randomGenerator = new Random();
+    randomGenerator.setSeed(2012);
+
+    try {
+      Files.deleteIfExists(Paths.get(CSV));
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+    Experiment.writeCsvHeaders(CSV, "Side", "Layout", "DfsGenerator ms", "A* average ms", "Average treatments", "DfsGenerator speedup", "A* speedup");
+
+    FullGridGraph warmupTopology = new FullGridGraph(WARMUP_SIDE);
+    for (VertexLayout layout : new VertexLayout[]{
+        VertexLayout.rowMajor(WARMUP_SIDE, WARMUP_SIDE), VertexLayout.tiled(WARMUP_SIDE, WARMUP_SIDE),
+        VertexLayout.morton(WARMUP_SIDE, WARMUP_SIDE)}) {
+      new DfsGenerator().generate(new GridMazeBuilder(warmupTopology, new GridGraph(layout)), 0);
+    }
+
+    for (int side : sides) {
+      System.out.println("\nCOTE : " + side);
+      VertexLayout[] layouts = {
+          VertexLayout.rowMajor(side, side), VertexLayout.tiled(side, side), VertexLayout.morton(side, side)
+      };
+      FullGridGraph topology = new FullGridGraph(side);
+      int nbVertices = topology.nbVertices();
+
+      int[] sources = new int[queries];
+      int[] destinations = new int[queries];
+      for (int q = 0; q < queries; ++q) {
+        sources[q] = randomGenerator.nextInt(nbVertices);
+        destinations[q] = randomGenerator.nextInt(nbVertices);
+      }
+      int[] weights = randomGenerator.ints(nbVertices, MIN_WEIGHT, MAX_WEIGHT + 1).toArray();
+      PositiveWeightFunction weightFunction = new ShenaniganWeightFunction(weights, MIN_WEIGHT);
+
+      GridGraph searched = null;
+      double rowMajorGeneration = 0;
+      double rowMajorSearch = 0;
+      long[] expectedCosts = new long[queries];
+      for (VertexLayout layout : layouts) {
+        long start = System.nanoTime();
+        GridGraph maze = new GridGraph(layout);
+        new DfsGenerator().generate(new GridMazeBuilder(topology, maze), 0);
+        double generation = (System.nanoTime() - start) / 1e6;
+
+        if (searched == null) {
+          new MazeTuner().setRandomGenerator(randomGenerator).setWallRemovalProbability(WALL_REMOVAL)
+              .removeWalls(topology, maze);
+          searched = maze;
+        } else {
+          // The first maze, stored in this layout
+          maze = new GridGraph(layout);
+          copyEdges(searched, maze);
+        }
+
+        GridMazeSolver aStar = new AStar(AStar.Heuristic.MANHATTAN);
+        SolverWorkspace workspace = new SolverWorkspace(layout);
+
+        // Warm-up, then the measured queries
+        aStar.solve(maze, weightFunction, sources[0], destinations[0], new BoolVertexLabelling(nbVertices), workspace);
+        long treatments = 0;
+        long searchTime = 0;
+        for (int q = 0; q < queries; ++q) {
+          start = System.nanoTime();
+          GridMazeSolver.Result result = aStar.solve(maze, weightFunction, sources[q], destinations[q], new BoolVertexLabelling(nbVertices), workspace);
+          searchTime += System.nanoTime() - start;
+          treatments += result.treatments();
+
+          // Every layout must lead to a shortest path of the same cost
+          long cost = AStar.pathCost(result.path(), weightFunction);
+          if (layout == layouts[0])
+            expectedCosts[q] = cost;
+          else if (cost != expectedCosts[q])
+            throw new AssertionError("Path costs differ: " + expectedCosts[q] + " / " + cost);
+        }
+
+        double search = searchTime / 1e6 / queries;
+        if (layout == layouts[0]) {
+          rowMajorGeneration = generation;
+          rowMajorSearch = search;
+        }
+        System.out.printf("%s: DfsGenerator %.0f ms (x%.2f), A* %.2f ms (x%.2f), %d treatments\n",
+            layout, generation, rowMajorGeneration / generation, search, rowMajorSearch / search, treatments / queries);
+
+        Experiment.addCsvLine(CSV, String.format(Locale.US, "%d,\"%s\",%.0f,%.2f,%d,%.2f,%.2f",
+            side, layout, generation, search, treatments / queries, rowMajorGeneration / generation, rowMajorSearch / search));
+      }
+    }
+  }
+
+  /**
+   * Adds the edges of a grid to an empty one of the same size.
+   */
+  private static void copyEdges(GridGraph from, GridGraph to) {
+    from.edgeStream().forEach(edge -> to.addEdge(Edge.first(edge), Edge.second(edge)));
+  }
+}
@@ -0,0 +1,251 @@
+package ch.heig.gre.groupQ;
+
+import ch.heig.gre.graph.GraphObserver;
+import ch.heig.gre.graph.GridGraph2D;
+import ch.heig.gre.graph.ObservableGraph;
+import ch.heig.gre.graph.PositiveWeightFunction;
+import ch.heig.gre.graph.VertexLabelling;
+import ch.heig.gre.maze.GridMazeSolver;
+import ch.heig.gre.maze.IndexedHeap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Lifelong Planning A* (LPA*): an incremental A* keeping its search state between queries on the same maze, source
+ * and destination.
+ *
+ * Each vertex has a cost g (as in A*) and a one-step lookahead rhs, the best cost through one of its neighbors. Only
+ * locally inconsistent vertices (g != rhs) are in the queue. When walls change, the solver is notified as a
+ * {@link GraphObserver}; when weights change, it must be told with {@link #weightsChanged}. It only marks the touched
+ * vertices; the next query recomputes their rhs and repairs the part of the shortest path tree they invalidate, instead
+ * of searching from scratch.
+ *
+ * Weights must be symmetric. Vertex events of the maze only report label changes (such as the progression of a search)
+ * and are ignored. The heuristic must be consistent and stay so after any change: the geometric heuristics are
+ * supported, but neither K_MANHATTAN nor ALT. A solver must be used by one thread at a time, and must be notified of
+ * every change of the maze between two queries.
+ */
+public final class LifelongAStar implements GridMazeSolver, GraphObserver {
+  /** Infinite cost of a vertex which can't be reached (yet) */
+  private static final int INFINITY = Integer.MAX_VALUE;
+
+  // Regular A*, providing the heuristic
+  private final AStar aStar;
+
+  // Query the search state belongs to, null before the first one
+  private GridGraph2D grid;
+  private PositiveWeightFunction weights;
+  private int source;
+  private int destination;
+
+  private int[] costs = new int[0];
+  private int[] lookaheads = new int[0];
+  private int[] heuristics = new int[0];
+  private IndexedHeap queue = new IndexedHeap(0);
+
+  // Vertices touched by changes since the last query
+  private boolean[] isChanged = new boolean[0];
+  private int[] changed = new int[16];
+  private int nbChanged = 0;
+
+  // Neighbors read without any allocation, by the expansions and by updateVertex which they call
+  private final int[] neighbors = new int[4];
+  private final int[] lookaheadNeighbors = new int[4];
+
+  /**
+   * @param heuristic a consistent heuristic
+   * @throws IllegalArgumentException for {@link AStar.Heuristic#K_MANHATTAN}, which is not consistent
+   */
+  public LifelongAStar(AStar.Heuristic heuristic) {
+    if (heuristic == AStar.Heuristic.K_MANHATTAN)
+      throw new IllegalArgumentException("LPA* requires a consistent heuristic");
+
+    this.aStar = new AStar(heuristic);
+  }
+
+  /**
+   * Creates a solver notified of the changes of a maze.
+   * @param heuristic the heuristic
+   * @param maze the maze the solver will be used on
+   * @return the subscribed solver
+   */
+  public static LifelongAStar subscribedTo(ObservableGraph maze, AStar.Heuristic heuristic) {
+    LifelongAStar solver = new LifelongAStar(heuristic);
+    maze.subscribe(solver);
+    return solver;
+  }
+
+  @Override
+  public Result solve(GridGraph2D grid,
+                      PositiveWeightFunction weights,
+                      int source,
+                      int destination,
+                      VertexLabelling<Boolean> processed) {
+    if (grid != this.grid || weights != this.weights || source != this.source || destination != this.destination) {
+      initialize(grid, weights, source, destination);
+    } else {
+      // Repair from the vertices touched since the last query
+      for (int i = 0; i < nbChanged; ++i) {
+        isChanged[changed[i]] = false;
+        updateVertex(changed[i]);
+      }
+    }
+    nbChanged = 0;
+
+    int treated = computeShortestPath(processed);
+
+    if (costs[destination] == INFINITY)
+      return new Result(Collections.emptyList(), 0, 0);
+
+    // Backwards from the destination, through the neighbor giving the cost of each vertex
+    List<Integer> path = new ArrayList<>();
+    path.add(destination);
+    for (int v = destination; v != source; ) {
+      int best = -1;
+      int bestCost = INFINITY;
+      int nbNeighbors = grid.neighbors(v, neighbors);
+      for (int i = 0; i < nbNeighbors; ++i) {
+        int neighbor = neighbors[i];
+        if (costs[neighbor] != INFINITY && costs[neighbor] + weights.get(neighbor, v) < bestCost) {
+          bestCost = costs[neighbor] + weights.get(neighbor, v);
+          best = neighbor;
+        }
+      }
+      path.add(best);
+      v = best;
+    }
+    Collections.reverse(path);
+
+    return new Result(path, path.size(), treated);
+  }
+
+  @Override
+  public void onEdgeAdded(int u, int v) {
+    markChanged(u);
+    markChanged(v);
+  }
+
+  @Override
+  public void onEdgeRemoved(int u, int v) {
+    markChanged(u);
+    markChanged(v);
+  }
+
+  /**
+   * Notifies the solver that the weights of all the edges of a vertex changed, for weight functions based on vertex
+   * weights.
+   * @param v the vertex whose weight changed
+   */
+  public void weightsChanged(int v) {
+    if (grid == null) return;
+
+    markChanged(v);
+    grid.forEachNeighbor(v, this::markChanged);
+  }
+
+  // Helpers
+
+  private void initialize(GridGraph2D grid, PositiveWeightFunction weights, int source, int destination) {
+    this.grid = grid;
+    this.weights = weights;
+    this.source = source;
+    this.destination = destination;
+
+    int n = grid.nbVertices();
+    if (n != costs.length) {
+      costs = new int[n];
+      lookaheads = new int[n];
+      heuristics = new int[n];
+      isChanged = new boolean[n];
+      queue = new IndexedHeap(n);
+    } else {
+      queue.clear();
+      Arrays.fill(isChanged, false);
+    }
+    Arrays.fill(costs, INFINITY);
+    Arrays.fill(lookaheads, INFINITY);
+
+    int width = grid.width();
+    int destinationX = destination % width;
+    int destinationY = destination / width;
+    AStar.HeuristicFunction heuristicFunction = aStar.heuristicFunction();
+    for (int v = 0; v < n; ++v)
+      heuristics[v] = heuristicFunction.get(v % width, v / width, destinationX, destinationY, weights.minWeight());
+
+    lookaheads[source] = 0;
+    queue.insert(source, key(source));
+  }
+
+  /**
+   * Expands the locally inconsistent vertices until the destination is consistent and no vertex left in the queue
+   * could lead to a shorter path. Vertices with the same key as the destination are expanded too, so that every vertex
+   * of the shortest path is consistent when it is rebuilt.
+   * @return the number of vertices expanded
+   */
+  private int computeShortestPath(VertexLabelling<Boolean> processed) {
+    int treated = 0;
+
+    while (!queue.isEmpty()
+        && (queue.peekKey() <= key(destination) || lookaheads[destination] != costs[destination])) {
+      int v = queue.poll();
+      processed.setLabel(v, true);
+      ++treated;
+
+      if (costs[v] > lookaheads[v]) {
+        // Overconsistent: its cost decreases, as in A*
+        costs[v] = lookaheads[v];
+      } else {
+        // Underconsistent: its cost increased, it is reevaluated
+        costs[v] = INFINITY;
+        updateVertex(v);
+      }
+
+      int nbNeighbors = grid.neighbors(v, neighbors);
+      for (int i = 0; i < nbNeighbors; ++i)
+        updateVertex(neighbors[i]);
+    }
+    return treated;
+  }
+
+  /**
+   * Recomputes the lookahead of a vertex, and puts it in the queue if and only if it is locally inconsistent.
+   */
+  private void updateVertex(int v) {
+    if (v != source) {
+      int lookahead = INFINITY;
+      int nbNeighbors = grid.neighbors(v, lookaheadNeighbors);
+      for (int i = 0; i < nbNeighbors; ++i) {
+        int neighbor = lookaheadNeighbors[i];
+        if (costs[neighbor] != INFINITY)
+          lookahead = Math.min(lookahead, costs[neighbor] + weights.get(neighbor, v));
+      }
+      lookaheads[v] = lookahead;
+    }
+
+    if (queue.contains(v))
+      queue.remove(v);
+    if (costs[v] != lookaheads[v])
+      queue.insert(v, key(v));
+  }
+
+  /**
+   * Key of a vertex: its best known cost plus its heuristic. Ties are not broken, which is why vertices with the same
+   * key as the destination are expanded too.
+   */
+  private int key(int v) {
+    int cost = Math.min(costs[v], lookaheads[v]);
+    return cost == INFINITY ? INFINITY : cost + heuristics[v];
+  }
+
+  private void markChanged(int v) {
+    if (grid == null || isChanged[v]) return;
+
+    if (nbChanged == changed.length)
+      changed = Arrays.copyOf(changed, 2 * nbChanged);
+    changed[nbChanged++] = v;
+    isChanged[v] = true;
+  }
+}
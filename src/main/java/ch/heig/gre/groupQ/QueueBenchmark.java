@@ -0,0 +1,211 @@
+package ch.heig.gre.groupQ;
+
+import ch.heig.gre.graph.GridGraph2D;
+import ch.heig.gre.graph.PositiveWeightFunction;
+import ch.heig.gre.maze.BucketQueue;
+import ch.heig.gre.maze.IndexedHeap;
+import ch.heig.gre.maze.MazeGenerator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/**
+ * Benchmark comparing the former A* priority queue ({@link PriorityQueue} with {@code removeIf} on each improvement)
+ * to the {@link IndexedHeap} and the {@link BucketQueue} on the {@link Experiment#PARAMS} configurations.
+ *
+ * All searches share everything but the queue, so that the measured difference comes from the queue only.
+ * Usage: {@code QueueBenchmark [mazes per experiment]}.
+ */
+public final class QueueBenchmark {
+  /** Default number of mazes generated for each experiment */
+  private static final int DEFAULT_N = 5;
+
+  /** Number of runs on the first maze used to warm up the JIT */
+  private static final int WARMUP = 2;
+
+  private static final String CSV = "queue_benchmark.csv";
+
+  // Priority queue entry of the former implementation
+  private record VertexPriority(int vertex, int prio) {}
+
+  private QueueBenchmark() {}
+
+  public static void main(String[] args) {
+    int n = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_N;
+
+    MazeGenerator mazeGenerator = new DfsGenerator();
+    Random randomGenerator = new Random();
+    randomGenerator.setSeed(2012);
+
+    try {
+      Files.deleteIfExists(Paths.get(CSV));
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+    Experiment.writeCsvHeaders(CSV, "Experiment name", "PriorityQueue average ms", "IndexedHeap average ms", "BucketQueue average ms", "IndexedHeap speedup", "BucketQueue speedup");
+
+    for (Experiment.Params p : Experiment.PARAMS) {
+      System.out.println("\nEXPERIENCE : " + p.description());
+
+      long priorityQueueTime = 0;
+      long indexedHeapTime = 0;
+      long bucketQueueTime = 0;
+
+      for (int i = 0; i < n; ++i) {
+        Experiment.GenerationResult maze = Experiment.generateGrid(mazeGenerator, p.parameters(), randomGenerator);
+
+        if (i == 0) {
+          for (int w = 0; w < WARMUP; ++w) {
+            solveWithPriorityQueue(maze.maze(), maze.weights(), Experiment.SRC, Experiment.DST);
+            solveWithIndexedHeap(maze.maze(), maze.weights(), Experiment.SRC, Experiment.DST);
+            solveWithBucketQueue(maze.maze(), maze.weights(), Experiment.SRC, Experiment.DST);
+          }
+        }
+
+        long start = System.nanoTime();
+        int expected = solveWithPriorityQueue(maze.maze(), maze.weights(), Experiment.SRC, Experiment.DST);
+        long middle = System.nanoTime();
+        int heapCost = solveWithIndexedHeap(maze.maze(), maze.weights(), Experiment.SRC, Experiment.DST);
+        long end = System.nanoTime();
+        int bucketCost = solveWithBucketQueue(maze.maze(), maze.weights(), Experiment.SRC, Experiment.DST);
+        long bucketEnd = System.nanoTime();
+
+        // Every queue must lead to a shortest path of the same cost
+        if (expected != heapCost || expected != bucketCost)
+          throw new AssertionError("Path costs differ: " + expected + " / " + heapCost + " / " + bucketCost);
+
+        priorityQueueTime += middle - start;
+        indexedHeapTime += end - middle;
+        bucketQueueTime += bucketEnd - end;
+        System.out.printf("N = %d: PriorityQueue %.2f ms, IndexedHeap %.2f ms, BucketQueue %.2f ms\n",
+            i, (middle - start) / 1e6, (end - middle) / 1e6, (bucketEnd - end) / 1e6);
+      }
+
+      double priorityQueueAverage = priorityQueueTime / 1e6 / n;
+      double indexedHeapAverage = indexedHeapTime / 1e6 / n;
+      double bucketQueueAverage = bucketQueueTime / 1e6 / n;
+      double heapSpeedup = priorityQueueAverage / indexedHeapAverage;
+      double bucketSpeedup = priorityQueueAverage / bucketQueueAverage;
+      System.out.printf("Moyenne: PriorityQueue %.2f ms, IndexedHeap %.2f ms (x%.2f), BucketQueue %.2f ms (x%.2f)\n",
+          priorityQueueAverage, indexedHeapAverage, heapSpeedup, bucketQueueAverage, bucketSpeedup);
+
+      Experiment.addCsvLine(CSV, String.format(Locale.US, "\"%s\",%.2f,%.2f,%.2f,%.2f,%.2f",
+          p.description(), priorityQueueAverage, indexedHeapAverage, bucketQueueAverage, heapSpeedup, bucketSpeedup));
+    }
+  }
+
+  /**
+   * A* search (Manhattan heuristic) using the former queue.
+   * @return the cost of the shortest path, -1 if there is none
+   */
+  private static int solveWithPriorityQueue(GridGraph2D grid, PositiveWeightFunction weights, int source, int destination) {
+    int[] costs = new int[grid.nbVertices()];
+    Arrays.fill(costs, Integer.MAX_VALUE);
+    costs[source] = 0;
+    int[] neighbors = new int[4];
+
+    PriorityQueue<VertexPriority> prioQueue = new PriorityQueue<>(1, Comparator.comparingInt(VertexPriority::prio));
+    prioQueue.add(new VertexPriority(source, heuristic(grid, weights, source, destination)));
+
+    while (!prioQueue.isEmpty()) {
+      int current = prioQueue.poll().vertex();
+      if (current == destination) return costs[current];
+
+      int nbNeighbors = grid.neighbors(current, neighbors);
+      for (int i = 0; i < nbNeighbors; ++i) {
+        int neighbor = neighbors[i];
+        int cost = costs[current] + weights.get(current, neighbor);
+        if (cost < costs[neighbor]) {
+          costs[neighbor] = cost;
+          prioQueue.removeIf(vertexPriority -> vertexPriority.vertex() == neighbor);
+          prioQueue.add(new VertexPriority(neighbor, cost + heuristic(grid, weights, neighbor, destination)));
+        }
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * A* search (Manhattan heuristic) using the {@link IndexedHeap}.
+   * @return the cost of the shortest path, -1 if there is none
+   */
+  private static int solveWithIndexedHeap(GridGraph2D grid, PositiveWeightFunction weights, int source, int destination) {
+    int[] costs = new int[grid.nbVertices()];
+    Arrays.fill(costs, Integer.MAX_VALUE);
+    costs[source] = 0;
+    int[] neighbors = new int[4];
+
+    IndexedHeap prioQueue = new IndexedHeap(grid.nbVertices());
+    prioQueue.insert(source, heuristic(grid, weights, source, destination));
+
+    while (!prioQueue.isEmpty()) {
+      int current = prioQueue.poll();
+      if (current == destination) return costs[current];
+
+      int nbNeighbors = grid.neighbors(current, neighbors);
+      for (int i = 0; i < nbNeighbors; ++i) {
+        int neighbor = neighbors[i];
+        int cost = costs[current] + weights.get(current, neighbor);
+        if (cost < costs[neighbor]) {
+          costs[neighbor] = cost;
+          int priority = cost + heuristic(grid, weights, neighbor, destination);
+          if (prioQueue.contains(neighbor)) {
+            prioQueue.decreaseKey(neighbor, priority);
+          } else {
+            prioQueue.insert(neighbor, priority);
+          }
+        }
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * A* search (Manhattan heuristic) using the {@link BucketQueue}, whose keys span at most the largest weight plus
+   * the heuristic slope (the smallest weight).
+   * @return the cost of the shortest path, -1 if there is none
+   */
+  private static int solveWithBucketQueue(GridGraph2D grid, PositiveWeightFunction weights, int source, int destination) {
+    int[] costs = new int[grid.nbVertices()];
+    Arrays.fill(costs, Integer.MAX_VALUE);
+    costs[source] = 0;
+    int[] neighbors = new int[4];
+
+    BucketQueue prioQueue = new BucketQueue(grid.nbVertices());
+    prioQueue.reset(weights.maxWeight() + weights.minWeight());
+    prioQueue.insert(source, heuristic(grid, weights, source, destination));
+
+    while (!prioQueue.isEmpty()) {
+      int current = prioQueue.poll();
+      if (current == destination) return costs[current];
+
+      int nbNeighbors = grid.neighbors(current, neighbors);
+      for (int i = 0; i < nbNeighbors; ++i) {
+        int neighbor = neighbors[i];
+        int cost = costs[current] + weights.get(current, neighbor);
+        if (cost < costs[neighbor]) {
+          costs[neighbor] = cost;
+          int priority = cost + heuristic(grid, weights, neighbor, destination);
+          if (prioQueue.contains(neighbor)) {
+            prioQueue.decreaseKey(neighbor, priority);
+          } else {
+            prioQueue.insert(neighbor, priority);
+          }
+        }
+      }
+    }
+    return -1;
+  }
+
+  // Manhattan distance scaled by the smallest weight
+  private static int heuristic(GridGraph2D grid, PositiveWeightFunction weights, int vertex, int destination) {
+    int width = grid.width();
+    return weights.minWeight() * (Math.abs(vertex % width - destination % width) + Math.abs(vertex / width - destination / width));
+  }
+}
@@ -0,0 +1,426 @@
+package ch.heig.gre.groupQ;
+
+import ch.heig.gre.graph.GridGraph2D;
+import ch.heig.gre.graph.PositiveWeightFunction;
+import ch.heig.gre.graph.VertexLabelling;
+import ch.heig.gre.maze.DistanceTableSolver;
+import ch.heig.gre.maze.GridMazeSolver;
+import ch.heig.gre.maze.SolverWorkspace;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Shortest paths of a perfect maze (a spanning tree, as {@link DfsGenerator} produces), or of a maze with a few walls
+ * removed, without any search.
+ *
+ * Each connected component is rooted, and every cell keeps its parent, its depth, the costs of its paths to and from
+ * the root, and a jump pointer towards an ancestor. Jump pointers are laid out like the skew-binary numbers, so that
+ * any ancestor, and the lowest common ancestor of two cells, is reached in O(log n) jumps with a single pointer per
+ * cell instead of the log n pointers of binary lifting. The path between two cells of a tree goes through their lowest
+ * common ancestor: its cost follows from the prefix costs, and its cells are found by climbing from both ends.
+ *
+ * The edges left out of the spanning trees (walls removed afterwards) are corrected for with the cycle space they
+ * span: a shortest path alternates tree paths and extra edges, so it only needs the distances between the k endpoints
+ * of the extra edges, computed once by Floyd-Warshall. A query then costs O(k log n + k²) on top of the tree query, and
+ * the index is only built when k is small.
+ *
+ * Edge weights need not be symmetric. The maze must not change once the index is built, and the grid and weights given
+ * to {@link #solve} must be those of the build. A query does not mark processed vertices and reports no treatments.
+ */
+public final class TreePathIndex implements GridMazeSolver {
+  /** Default maximal number of edges outside the spanning trees */
+  public static final int DEFAULT_MAX_EXTRA_EDGES = 64;
+
+  /** Parent of a root */
+  private static final int NO_PARENT = -1;
+
+  /** Intermediate vertex of a direct distance between endpoints */
+  private static final int NO_VIA = -1;
+
+  private final int nbVertices;
+
+  /** Spanning forest: parent, jump pointer, depth and root of each cell */
+  private final int[] parents;
+  private final int[] jumps;
+  private final int[] depths;
+  private final int[] roots;
+
+  /** Costs of the tree paths from each cell to its root and from its root to the cell */
+  private final int[] toRoot;
+  private final int[] fromRoot;
+
+  /** Endpoints of the extra edges */
+  private final int[] endpoints;
+
+  /** Distances between endpoints in the whole maze, row-major */
+  private final long[] endpointDistances;
+
+  /** Intermediate endpoint of each distance, or NO_VIA when it is a direct one */
+  private final int[] vias;
+
+  /** Whether a direct distance is an extra edge rather than a tree path */
+  private final boolean[] directEdges;
+
+  private final int nbExtraEdges;
+
+  private TreePathIndex(int nbVertices, int[] parents, int[] jumps, int[] depths, int[] roots, int[] toRoot,
+                        int[] fromRoot, int[] endpoints, long[] endpointDistances, int[] vias, boolean[] directEdges,
+                        int nbExtraEdges) {
+    this.nbVertices = nbVertices;
+    this.parents = parents;
+    this.jumps = jumps;
+    this.depths = depths;
+    this.roots = roots;
+    this.toRoot = toRoot;
+    this.fromRoot = fromRoot;
+    this.endpoints = endpoints;
+    this.endpointDistances = endpointDistances;
+    this.vias = vias;
+    this.directEdges = directEdges;
+    this.nbExtraEdges = nbExtraEdges;
+  }
+
+  /**
+   * Builds the index of a maze, if it has at most {@link #DEFAULT_MAX_EXTRA_EDGES} edges outside its spanning trees.
+   * @param grid the maze
+   * @param weights weight function of the maze
+   * @return the index, or null if the maze has too many edges
+   */
+  public static TreePathIndex build(GridGraph2D grid, PositiveWeightFunction weights) {
+    return build(grid, weights, DEFAULT_MAX_EXTRA_EDGES);
+  }
+
+  /**
+   * Builds the index of a maze, if it has at most a given number of edges outside its spanning trees.
+   * @param grid the maze
+   * @param weights weight function of the maze
+   * @param maxExtraEdges maximal number of edges outside the spanning trees
+   * @return the index, or null if the maze has too many edges
+   * @throws IllegalArgumentException if maxExtraEdges is negative
+   */
+  public static TreePathIndex build(GridGraph2D grid, PositiveWeightFunction weights, int maxExtraEdges) {
+    if (maxExtraEdges < 0)
+      throw new IllegalArgumentException("Maximal number of extra edges: " + maxExtraEdges + " must not be negative");
+
+    int n = grid.nbVertices();
+    int[] parents = new int[n];
+    int[] jumps = new int[n];
+    int[] depths = new int[n];
+    int[] roots = new int[n];
+    int[] toRoot = new int[n];
+    int[] fromRoot = new int[n];
+    Arrays.fill(parents, NO_PARENT);
+    Arrays.fill(roots, -1);
+
+    // Breadth-first traversal of each component, a parent always being set up before its children
+    int[] queue = new int[n];
+    int[] neighbors = new int[4];
+    int nbEdges = 0;
+    for (int root = 0; root < n; ++root) {
+      if (roots[root] != -1) continue;
+
+      roots[root] = root;
+      jumps[root] = root;
+      int head = 0;
+      int tail = 0;
+      queue[tail++] = root;
+      while (head < tail) {
+        int v = queue[head++];
+        int nbNeighbors = grid.neighbors(v, neighbors);
+        nbEdges += nbNeighbors;
+        for (int i = 0; i < nbNeighbors; ++i) {
+          int neighbor = neighbors[i];
+          if (roots[neighbor] != -1) continue;
+
+          roots[neighbor] = root;
+          parents[neighbor] = v;
+          depths[neighbor] = depths[v] + 1;
+          toRoot[neighbor] = weights.get(neighbor, v) + toRoot[v];
+          fromRoot[neighbor] = fromRoot[v] + weights.get(v, neighbor);
+
+          // Jump twice as far as the parent when its jump and the jump of its jump have the same length
+          int j = jumps[v];
+          jumps[neighbor] = depths[v] - depths[j] == depths[j] - depths[jumps[j]] ? jumps[j] : v;
+
+          queue[tail++] = neighbor;
+        }
+      }
+    }
+
+    // Each tree edge was seen from both ends, as were the others
+    int nbTreeEdges = n - countRoots(parents);
+    int nbExtraEdges = nbEdges / 2 - nbTreeEdges;
+    if (nbExtraEdges > maxExtraEdges)
+      return null;
+
+    // Extra edges, each once from its lowest end
+    int[] extraEdges = new int[2 * nbExtraEdges];
+    int nbFound = 0;
+    for (int v = 0; v < n && nbFound < nbExtraEdges; ++v) {
+      int nbNeighbors = grid.neighbors(v, neighbors);
+      for (int i = 0; i < nbNeighbors; ++i) {
+        int neighbor = neighbors[i];
+        if (neighbor > v && parents[neighbor] != v && parents[v] != neighbor) {
+          extraEdges[2 * nbFound] = v;
+          extraEdges[2 * nbFound + 1] = neighbor;
+          ++nbFound;
+        }
+      }
+    }
+
+    TreePathIndex forest = new TreePathIndex(n, parents, jumps, depths, roots, toRoot, fromRoot,
+        new int[0], new long[0], new int[0], new boolean[0], 0);
+    if (nbExtraEdges == 0)
+      return forest;
+
+    return forest.withExtraEdges(extraEdges, weights);
+  }
+
+  /**
+   * @return the number of edges of the maze outside its spanning trees, 0 for a perfect maze
+   */
+  public int nbExtraEdges() {
+    return nbExtraEdges;
+  }
+
+  /**
+   * @return whether every component of the maze is a tree
+   */
+  public boolean isForest() {
+    return nbExtraEdges == 0;
+  }
+
+  /**
+   * @param source a cell
+   * @param destination another cell
+   * @return the cost of a shortest path from source to destination, or {@link DistanceTableSolver#UNREACHABLE}
+   */
+  public int distance(int source, int destination) {
+    if (roots[source] != roots[destination])
+      return DistanceTableSolver.UNREACHABLE;
+
+    return (int) Math.min(treeDistance(source, destination), detour(source, destination, null));
+  }
+
+  @Override
+  public Result solve(GridGraph2D grid,
+                      PositiveWeightFunction weights,
+                      int source,
+                      int destination,
+                      VertexLabelling<Boolean> processed) {
+    return solve(grid, weights, source, destination, processed, new SolverWorkspace());
+  }
+
+  @Override
+  public Result solve(GridGraph2D grid,
+                      PositiveWeightFunction weights,
+                      int source,
+                      int destination,
+                      VertexLabelling<Boolean> processed,
+                      SolverWorkspace workspace) {
+    if (grid.nbVertices() != nbVertices)
+      throw new IllegalArgumentException("The index was built on a grid of " + nbVertices + " vertices");
+
+    List<Integer> path = path(source, destination);
+    return new Result(path, path.size(), 0);
+  }
+
+  /**
+   * Shortest path between two cells.
+   * @param source a cell
+   * @param destination another cell
+   * @return the cells of the path, source and destination included, empty if they are not connected
+   */
+  public List<Integer> path(int source, int destination) {
+    if (roots[source] != roots[destination])
+      return Collections.emptyList();
+
+    List<Integer> path = new ArrayList<>();
+    path.add(source);
+    int[] ends = new int[2];
+    if (detour(source, destination, ends) < treeDistance(source, destination)) {
+      appendTreePath(path, source, endpoints[ends[0]]);
+      unpack(path, ends[0], ends[1]);
+      appendTreePath(path, endpoints[ends[1]], destination);
+    } else {
+      appendTreePath(path, source, destination);
+    }
+    return path;
+  }
+
+  // Helpers
+
+  private static int countRoots(int[] parents) {
+    int count = 0;
+    for (int parent : parents)
+      if (parent == NO_PARENT) ++count;
+    return count;
+  }
+
+  /**
+   * Index of the same forest with the distances between the endpoints of its extra edges.
+   */
+  private TreePathIndex withExtraEdges(int[] extraEdges, PositiveWeightFunction weights) {
+    // Distinct endpoints
+    int[] endpoints = Arrays.stream(extraEdges).distinct().toArray();
+    int m = endpoints.length;
+
+    // Direct distances: tree paths, or extra edges when cheaper
+    long[] distances = new long[m * m];
+    int[] vias = new int[m * m];
+    boolean[] directEdges = new boolean[m * m];
+    Arrays.fill(vias, NO_VIA);
+    for (int i = 0; i < m; ++i)
+      for (int j = 0; j < m; ++j)
+        distances[i * m + j] = treeDistance(endpoints[i], endpoints[j]);
+
+    for (int e = 0; e < extraEdges.length; e += 2) {
+      int i = indexOf(endpoints, extraEdges[e]);
+      int j = indexOf(endpoints, extraEdges[e + 1]);
+      setEdge(distances, directEdges, i * m + j, weights.get(extraEdges[e], extraEdges[e + 1]));
+      setEdge(distances, directEdges, j * m + i, weights.get(extraEdges[e + 1], extraEdges[e]));
+    }
+
+    // Floyd-Warshall, each distance keeping its intermediate endpoint to be unpacked
+    for (int k = 0; k < m; ++k) {
+      for (int i = 0; i < m; ++i) {
+        long ik = distances[i * m + k];
+        if (ik == Long.MAX_VALUE) continue;
+
+        for (int j = 0; j < m; ++j) {
+          long kj = distances[k * m + j];
+          if (kj != Long.MAX_VALUE && ik + kj < distances[i * m + j]) {
+            distances[i * m + j] = ik + kj;
+            vias[i * m + j] = k;
+          }
+        }
+      }
+    }
+
+    return new TreePathIndex(nbVertices, parents, jumps, depths, roots, toRoot, fromRoot, endpoints, distances, vias,
+        directEdges, extraEdges.length / 2);
+  }
+
+  private static void setEdge(long[] distances, boolean[] directEdges, int index, int weight) {
+    if (weight < distances[index]) {
+      distances[index] = weight;
+      directEdges[index] = true;
+    }
+  }
+
+  private static int indexOf(int[] values, int value) {
+    for (int i = 0; i < values.length; ++i)
+      if (values[i] == value) return i;
+    throw new IllegalStateException("Missing endpoint " + value);
+  }
+
+  /**
+   * Cost of the tree path between two cells, Long.MAX_VALUE if they are in different trees.
+   */
+  private long treeDistance(int u, int v) {
+    if (roots[u] != roots[v])
+      return Long.MAX_VALUE;
+
+    int ancestor = lowestCommonAncestor(u, v);
+    return (long) toRoot[u] - toRoot[ancestor] + fromRoot[v] - fromRoot[ancestor];
+  }
+
+  /**
+   * Cheapest cost of a path from u to v through at least one endpoint, Long.MAX_VALUE if there is no endpoint. The
+   * first and last endpoints of the path are written to ends when it is not null.
+   */
+  private long detour(int u, int v, int[] ends) {
+    int m = endpoints.length;
+    if (m == 0)
+      return Long.MAX_VALUE;
+
+    long[] fromU = new long[m];
+    long[] toV = new long[m];
+    for (int i = 0; i < m; ++i) {
+      fromU[i] = treeDistance(u, endpoints[i]);
+      toV[i] = treeDistance(endpoints[i], v);
+    }
+
+    long best = Long.MAX_VALUE;
+    for (int i = 0; i < m; ++i) {
+      if (fromU[i] == Long.MAX_VALUE) continue;
+
+      for (int j = 0; j < m; ++j) {
+        long middle = endpointDistances[i * m + j];
+        if (middle == Long.MAX_VALUE || toV[j] == Long.MAX_VALUE) continue;
+
+        long cost = fromU[i] + middle + toV[j];
+        if (cost < best) {
+          best = cost;
+          if (ends != null) {
+            ends[0] = i;
+            ends[1] = j;
+          }
+        }
+      }
+    }
+    return best;
+  }
+
+  private int ancestorAtDepth(int v, int depth) {
+    while (depths[v] > depth)
+      v = depths[jumps[v]] >= depth ? jumps[v] : parents[v];
+    return v;
+  }
+
+  private int lowestCommonAncestor(int u, int v) {
+    if (depths[u] > depths[v])
+      u = ancestorAtDepth(u, depths[v]);
+    else
+      v = ancestorAtDepth(v, depths[u]);
+
+    // At the same depth, the jumps of u and v have the same length
+    while (u != v) {
+      if (jumps[u] != jumps[v]) {
+        u = jumps[u];
+        v = jumps[v];
+      } else {
+        u = parents[u];
+        v = parents[v];
+      }
+    }
+    return u;
+  }
+
+  /**
+   * Appends the cells of the tree path from u to v, u excluded.
+   */
+  private void appendTreePath(List<Integer> path, int u, int v) {
+    int ancestor = lowestCommonAncestor(u, v);
+    for (int w = u; w != ancestor; ) {
+      w = parents[w];
+      path.add(w);
+    }
+
+    int start = path.size();
+    for (int w = v; w != ancestor; w = parents[w])
+      path.add(w);
+    Collections.reverse(path.subList(start, path.size()));
+  }
+
+  /**
+   * Appends the cells of the shortest path between two endpoints, the first one excluded.
+   */
+  private void unpack(List<Integer> path, int i, int j) {
+    int m = endpoints.length;
+    if (i == j) return;
+
+    int via = vias[i * m + j];
+    if (via != NO_VIA) {
+      unpack(path, i, via);
+      unpack(path, via, j);
+    } else if (directEdges[i * m + j]) {
+      path.add(endpoints[j]);
+    } else {
+      appendTreePath(path, endpoints[i], endpoints[j]);
+    }
+  }
+}
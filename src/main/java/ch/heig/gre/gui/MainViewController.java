@@ -1,5 +1,6 @@
 package ch.heig.gre.gui;
 
+import ch.heig.gre.graph.FullGridGraph;
 import ch.heig.gre.graph.GridGraph;
 import ch.heig.gre.graph.GridGraph2D;
 import ch.heig.gre.maze.MazeGenerator;
@@ -57,7 +58,7 @@ public final class MainViewController implements Initializable {
   private MazeGenerator generator;
   private MazeTuner tuner;
   private MazePainter painter;
-  private GridGraph topology;
+  private FullGridGraph topology;
   private GridGraph2D generatedMaze;
   private GridGraph2D tunedMaze;
   private int[] weights;
@@ -93,8 +94,7 @@ public final class MainViewController implements Initializable {
     canceled = false;
 
     int side = (int) gridSizeSlider.getValue();
-    topology = new GridGraph(side);
-    GridGraph.bindAll(topology);
+    topology = new FullGridGraph(side);
     GridGraph delegate = new GridGraph(side);
     if (!generator.requireWalls())
       GridGraph.bindAll(delegate);
@@ -328,8 +328,7 @@ public final class MainViewController implements Initializable {
     var maze = r.maze();
 
     onStop();
-    topology = new GridGraph(maze.width(), maze.height());
-    GridGraph.bindAll(topology);
+    topology = new FullGridGraph(maze.width(), maze.height());
 
     generatedMaze = maze; // Perte du labyrinthe initial (non enregistré dans le fichier). Pas grave.
     tunedMaze = maze;
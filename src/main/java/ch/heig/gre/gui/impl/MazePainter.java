@@ -88,9 +88,7 @@ public final class MazePainter {
   private void drawCell(int v, BufferedImage buffer) {
     drawRect(cellOffset(col(v)), cellOffset(row(v)), cellSide, cellSide, cellColorF.apply(v), buffer);
 
-    for(int u : maze.neighbors(v)) {
-      drawWall(u, v, buffer);
-    }
+    maze.forEachNeighbor(v, u -> drawWall(u, v, buffer));
   }
 
   public void repaint() {
@@ -106,11 +104,13 @@ public final class MazePainter {
     g.fillRect(0, 0, buffer.getWidth(), buffer.getHeight());
 
     // Cases et murs
+    int[] neighbors = new int[4];
     for (int u = 0; u < maze.nbVertices(); ++u) {
       drawCell(u, buffer);
-      for (int v : maze.neighbors(u)) {
-        if (u > v)
-          drawWall(u, v, buffer);
+      int nbNeighbors = maze.neighbors(u, neighbors);
+      for (int i = 0; i < nbNeighbors; ++i) {
+        if (u > neighbors[i])
+          drawWall(u, neighbors[i], buffer);
       }
     }
 
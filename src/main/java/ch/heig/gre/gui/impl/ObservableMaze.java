@@ -29,6 +29,11 @@ public final class ObservableMaze
     return delegate.neighbors(v);
   }
 
+  @Override
+  public synchronized int neighborMask(int v) {
+    return delegate.neighborMask(v);
+  }
+
   @Override
   public synchronized List<Edge> edges() {
     return delegate.edges();
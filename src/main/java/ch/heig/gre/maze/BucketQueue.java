@@ -0,0 +1,237 @@
+package ch.heig.gre.maze;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * <p>File de priorité monotone à seaux (algorithme de Dial) sur des sommets numérotés de 0 à <i>n - 1</i>.</p>
+ *
+ * <p>Les priorités sont des entiers et la file exploite deux propriétés de Dijkstra/A* (heuristique consistante) :
+ * la plus petite priorité ne diminue jamais, et toute priorité insérée est comprise entre la plus petite priorité
+ * courante et celle-ci augmentée d'un écart maximal {@code span} connu à l'avance (typiquement le poids maximal
+ * d'une arête). Il suffit alors de {@code span + 1} seaux utilisés de manière circulaire : insertion, diminution de
+ * priorité et suppression sont en temps constant, l'extraction du minimum en temps constant amorti.</p>
+ *
+ * <p>Les seaux sont des listes doublement chaînées intrusives stockées dans des tableaux d'entiers, aucun objet
+ * n'est alloué lors de l'utilisation.</p>
+ */
+public final class BucketQueue {
+  /** Écart maximal accepté par {@link #reset}, le nombre de seaux (puissance de 2) devant tenir dans un int */
+  public static final int MAX_SPAN = (1 << 30) - 1;
+
+  /** Marqueur de fin de liste et de sommet absent */
+  private static final int NONE = -1;
+
+  /** Premier sommet de chaque seau */
+  private int[] heads = new int[0];
+
+  /** Masque d'indexation des seaux (leur nombre est une puissance de 2) */
+  private int mask = -1;
+
+  /** Écart maximal entre une priorité insérée et la plus petite priorité */
+  private int span;
+
+  /** Sommets suivant et précédent dans leur seau */
+  private final int[] next;
+  private final int[] previous;
+
+  /** Priorité de chaque sommet (valide uniquement s'il est dans la file) */
+  private final int[] keys;
+
+  /** Seau de chaque sommet, {@link #NONE} s'il n'est pas dans la file */
+  private final int[] buckets;
+
+  /** Plus petite priorité possible dans la file */
+  private int minKey;
+
+  /** Nombre de sommets dans la file */
+  private int size;
+
+  /**
+   * Crée une file vide pouvant contenir les sommets 0 à {@code capacity - 1}. Elle doit être préparée avec
+   * {@link #reset} avant utilisation.
+   *
+   * @param capacity Nombre de sommets.
+   * @throws IllegalArgumentException si {@code capacity} est négatif.
+   */
+  public BucketQueue(int capacity) {
+    if (capacity < 0)
+      throw new IllegalArgumentException("Capacity: " + capacity + " must be non negative");
+
+    this.next = new int[capacity];
+    this.previous = new int[capacity];
+    this.keys = new int[capacity];
+    this.buckets = new int[capacity];
+    Arrays.fill(buckets, NONE);
+  }
+
+  /**
+   * Vide la file et fixe l'écart maximal entre une priorité insérée et la plus petite priorité de la file.
+   *
+   * @param span Écart maximal.
+   * @throws IllegalArgumentException si {@code span} est négatif ou supérieur à {@link #MAX_SPAN}.
+   */
+  public void reset(int span) {
+    if (span < 0 || span > MAX_SPAN)
+      throw new IllegalArgumentException("Span: " + span + " must be in [0, " + MAX_SPAN + "]");
+
+    clear();
+    this.span = span;
+
+    // Nombre de seaux arrondi à la puissance de 2 supérieure, au plus 2^30 grâce à MAX_SPAN
+    int nbBuckets = span == 0 ? 1 : Integer.highestOneBit(span) << 1;
+    if (nbBuckets > heads.length) {
+      heads = new int[nbBuckets];
+      Arrays.fill(heads, NONE);
+    }
+    mask = heads.length - 1;
+    minKey = 0;
+  }
+
+  /**
+   * @return Le nombre de sommets dans la file.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @return {@code true} si la file est vide, {@code false} sinon.
+   */
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * @param v Un sommet.
+   * @return {@code true} si <i>v</i> est dans la file, {@code false} sinon.
+   */
+  public boolean contains(int v) {
+    return buckets[v] != NONE;
+  }
+
+  /**
+   * Ajoute un sommet à la file.
+   *
+   * @param v   Un sommet absent de la file.
+   * @param key Sa priorité, dans l'intervalle [<i>min</i>, <i>min + span</i>] où <i>min</i> est la priorité du dernier
+   *            sommet extrait. Si la file est vide, une priorité hors de l'intervalle en devient la nouvelle
+   *            référence.
+   * @throws IllegalArgumentException si <i>v</i> est déjà dans la file ou si {@code key} est hors de l'intervalle.
+   */
+  public void insert(int v, int key) {
+    if (contains(v))
+      throw new IllegalArgumentException("Vertex " + v + " already in queue");
+
+    if (size == 0 && (key < minKey || key - minKey > span))
+      // File vide : seul le dernier sommet extrait contraignait la plus petite priorité
+      minKey = key;
+
+    assertInRange(key);
+    link(v, key);
+    ++size;
+  }
+
+  /**
+   * Diminue la priorité d'un sommet de la file.
+   *
+   * @param v   Un sommet présent dans la file.
+   * @param key Nouvelle priorité, inférieure ou égale à l'actuelle et supérieure ou égale à la plus petite priorité.
+   * @throws NoSuchElementException   si <i>v</i> n'est pas dans la file.
+   * @throws IllegalArgumentException si {@code key} est invalide.
+   */
+  public void decreaseKey(int v, int key) {
+    if (!contains(v))
+      throw new NoSuchElementException("Vertex " + v + " not in queue");
+    if (key > keys[v])
+      throw new IllegalArgumentException("New key " + key + " is greater than current key " + keys[v]);
+
+    assertInRange(key);
+    unlink(v);
+    link(v, key);
+  }
+
+  /**
+   * @return La plus petite priorité de la file.
+   * @throws NoSuchElementException si la file est vide.
+   */
+  public int peekKey() {
+    return keys[heads[advance()]];
+  }
+
+  /**
+   * Retire et retourne un sommet de plus petite priorité.
+   *
+   * @return Le sommet retiré.
+   * @throws NoSuchElementException si la file est vide.
+   */
+  public int poll() {
+    int v = heads[advance()];
+    unlink(v);
+    --size;
+    return v;
+  }
+
+  /**
+   * Vide la file. Le coût est proportionnel au nombre de seaux et de sommets encore présents.
+   */
+  public void clear() {
+    for (int b = 0; b < heads.length && size > 0; ++b) {
+      for (int v = heads[b]; v != NONE; v = next[v]) {
+        buckets[v] = NONE;
+        --size;
+      }
+      heads[b] = NONE;
+    }
+    size = 0;
+  }
+
+  // internal helpers
+
+  /**
+   * Avance jusqu'au premier seau non vide, en au plus {@code span} étapes.
+   * @return L'index du seau.
+   */
+  private int advance() {
+    if (size == 0)
+      throw new NoSuchElementException("Queue is empty");
+
+    while (heads[minKey & mask] == NONE)
+      ++minKey;
+
+    return minKey & mask;
+  }
+
+  private void link(int v, int key) {
+    int bucket = key & mask;
+    int head = heads[bucket];
+
+    keys[v] = key;
+    buckets[v] = bucket;
+    previous[v] = NONE;
+    next[v] = head;
+    if (head != NONE)
+      previous[head] = v;
+    heads[bucket] = v;
+  }
+
+  private void unlink(int v) {
+    int p = previous[v];
+    int n = next[v];
+
+    if (p == NONE)
+      heads[buckets[v]] = n;
+    else
+      next[p] = n;
+
+    if (n != NONE)
+      previous[n] = p;
+
+    buckets[v] = NONE;
+  }
+
+  private void assertInRange(int key) {
+    if (key < minKey || key - minKey > span)
+      throw new IllegalArgumentException("Key " + key + " out of range [" + minKey + "," + (minKey + span) + "]");
+  }
+}
@@ -0,0 +1,33 @@
+package ch.heig.gre.maze;
+
+import ch.heig.gre.graph.GridGraph2D;
+import ch.heig.gre.graph.PositiveWeightFunction;
+
+/**
+ * <p>Calcul de tables de distances (plusieurs sources × plusieurs cibles) dans un labyrinthe en forme de grille.</p>
+ *
+ * <p>Complément de {@link GridMazeSolver} lorsque seules les distances sont utiles, et non les chemins : une table
+ * entière est calculée en partageant le travail entre les requêtes, au lieu d'une recherche par paire.</p>
+ */
+@FunctionalInterface
+public interface DistanceTableSolver {
+  /** Distance d'une cible inaccessible depuis une source */
+  int UNREACHABLE = Integer.MAX_VALUE;
+
+  /**
+   * <p>Calcule la distance de chaque source à chaque cible.</p>
+   *
+   * <p>La table retournée est stockée ligne par ligne : la distance de {@code sources[i]} à {@code targets[j]} est
+   * à l'indice {@code i * targets.length + j}. Les sources et les cibles peuvent contenir des doublons.</p>
+   *
+   * @param grid    Un labyrinthe en forme de grille.
+   * @param weights Fonction de pondération des arêtes du labyrinthe (poids strictement positifs).
+   * @param sources Sommets de départ.
+   * @param targets Sommets d'arrivée.
+   * @return La table des distances, {@link #UNREACHABLE} pour les cibles inaccessibles.
+   *
+   * @throws NullPointerException      si l'un des paramètres est {@code null}.
+   * @throws IndexOutOfBoundsException si une source ou une cible n'est pas un sommet de {@code grid}.
+   */
+  int[] distances(GridGraph2D grid, PositiveWeightFunction weights, int[] sources, int[] targets);
+}
@@ -15,10 +15,13 @@ public interface GridMazeSolver {
   /**
    * Résultat du solveur de labyrinthes.
    *
+   * <p>Lorsqu'il n'existe aucun chemin, le résultat est {@code Result(emptyList, 0, 0)} : le chemin est vide et
+   * le nombre de sommets traités n'est pas rapporté.</p>
+   *
    * @param path       Chemin trouvé, dans l'ordre, de la source à la destination (toutes deux incluses). La liste peut
    *                   être modifiable ou non.
    * @param length     Longueur du chemin trouvé.
-   * @param treatments Nombre de sommets traités (indice de performance).
+   * @param treatments Nombre de sommets traités (indice de performance), 0 s'il n'existe aucun chemin.
    */
   record Result(List<Integer> path, int length, int treatments) {}
 
@@ -51,4 +54,33 @@ public interface GridMazeSolver {
                int source,
                int destination,
                VertexLabelling<Boolean> processed);
+
+  /**
+   * <p>Variante de {@link #solve(GridGraph2D, PositiveWeightFunction, int, int, VertexLabelling)} réutilisant
+   * l'état de recherche d'un {@link SolverWorkspace}, afin d'enchaîner de nombreuses requêtes sans réallouer ni
+   * réinitialiser de structures proportionnelles à la taille de la grille.</p>
+   *
+   * <p>L'implémentation par défaut ignore {@code workspace}.</p>
+   *
+   * @param grid        Un {@link Graph} représentant le labyrinthe.
+   * @param weights     Fonction de pondération des arêtes du labyrinthe (poids strictement positifs).
+   * @param source      Sommet de départ.
+   * @param destination Sommet de destination.
+   * @param processed   Distances des sommets à la source ou destination (entrée-sortie).
+   * @param workspace   Espace de travail, à ne pas partager entre plusieurs recherches simultanées.
+   * @return Un {@link Result} contenant le chemin trouvé, sa longueur et le nombre de sommets traités.
+   *
+   * @throws NullPointerException     si {@code grid}, {@code weights}, {@code processed} ou {@code workspace} sont
+   *                                  {@code null}.
+   * @throws IllegalArgumentException si {@code source} ou  {@code destination} ne sont pas des sommets de
+   *                                  {@code graph}.
+   */
+  default Result solve(GridGraph2D grid,
+                       PositiveWeightFunction weights,
+                       int source,
+                       int destination,
+                       VertexLabelling<Boolean> processed,
+                       SolverWorkspace workspace) {
+    return solve(grid, weights, source, destination, processed);
+  }
 }
@@ -0,0 +1,251 @@
+package ch.heig.gre.maze;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * <p>File de priorité indexée (tas 4-aire) sur des sommets numérotés de 0 à <i>n - 1</i>, avec des priorités
+ * entières. La plus petite priorité est retournée en premier.</p>
+ *
+ * <p>Contrairement à {@link java.util.PriorityQueue}, la position de chaque sommet dans le tas est connue, ce qui
+ * permet une véritable opération {@link #decreaseKey} en temps logarithmique au lieu d'une suppression linéaire
+ * suivie d'une réinsertion. Aucun objet n'est alloué lors de l'utilisation : le tas, les positions et les priorités
+ * sont stockés dans des tableaux d'entiers.</p>
+ *
+ * <p>Un tas 4-aire est moins profond qu'un tas binaire et ses enfants sont contigus en mémoire, ce qui favorise les
+ * insertions et diminutions de priorité, majoritaires dans Dijkstra/A*.</p>
+ */
+public final class IndexedHeap {
+  /** Arité du tas */
+  private static final int ARITY = 4;
+
+  /** Position d'un sommet absent du tas */
+  private static final int ABSENT = -1;
+
+  /** Sommets, dans l'ordre du tas */
+  private int[] heap;
+
+  /** Position de chaque sommet dans {@link #heap}, {@link #ABSENT} s'il n'est pas dans le tas */
+  private int[] positions;
+
+  /** Priorité de chaque sommet (valide uniquement s'il est dans le tas) */
+  private int[] keys;
+
+  /** Nombre de sommets dans le tas */
+  private int size;
+
+  /**
+   * Crée un tas vide pouvant contenir les sommets 0 à {@code capacity - 1}.
+   *
+   * @param capacity Nombre de sommets.
+   * @throws IllegalArgumentException si {@code capacity} est négatif.
+   */
+  public IndexedHeap(int capacity) {
+    if (capacity < 0)
+      throw new IllegalArgumentException("Capacity: " + capacity + " must be non negative");
+
+    this.heap = new int[capacity];
+    this.positions = new int[capacity];
+    this.keys = new int[capacity];
+    Arrays.fill(positions, ABSENT);
+  }
+
+  /**
+   * @return Le nombre de sommets dans le tas.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @return {@code true} si le tas est vide, {@code false} sinon.
+   */
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * @param v Un sommet.
+   * @return {@code true} si <i>v</i> est dans le tas, {@code false} sinon.
+   * @throws IndexOutOfBoundsException si <i>v</i> dépasse la capacité du tas.
+   */
+  public boolean contains(int v) {
+    return positions[v] != ABSENT;
+  }
+
+  /**
+   * @param v Un sommet présent dans le tas.
+   * @return La priorité de <i>v</i>.
+   * @throws NoSuchElementException si <i>v</i> n'est pas dans le tas.
+   */
+  public int key(int v) {
+    assertContains(v);
+    return keys[v];
+  }
+
+  /**
+   * Ajoute un sommet au tas.
+   *
+   * @param v   Un sommet absent du tas.
+   * @param key Sa priorité.
+   * @throws IllegalArgumentException si <i>v</i> est déjà dans le tas.
+   */
+  public void insert(int v, int key) {
+    if (contains(v))
+      throw new IllegalArgumentException("Vertex " + v + " already in heap");
+
+    keys[v] = key;
+    heap[size] = v;
+    positions[v] = size;
+    siftUp(size++);
+  }
+
+  /**
+   * Diminue la priorité d'un sommet du tas.
+   *
+   * @param v   Un sommet présent dans le tas.
+   * @param key Nouvelle priorité, inférieure ou égale à l'actuelle.
+   * @throws NoSuchElementException   si <i>v</i> n'est pas dans le tas.
+   * @throws IllegalArgumentException si {@code key} est supérieure à la priorité actuelle.
+   */
+  public void decreaseKey(int v, int key) {
+    assertContains(v);
+    if (key > keys[v])
+      throw new IllegalArgumentException("New key " + key + " is greater than current key " + keys[v]);
+
+    keys[v] = key;
+    siftUp(positions[v]);
+  }
+
+  /**
+   * @return Le sommet de plus petite priorité, sans le retirer.
+   * @throws NoSuchElementException si le tas est vide.
+   */
+  public int peek() {
+    assertNotEmpty();
+    return heap[0];
+  }
+
+  /**
+   * @return La plus petite priorité du tas.
+   * @throws NoSuchElementException si le tas est vide.
+   */
+  public int peekKey() {
+    return keys[peek()];
+  }
+
+  /**
+   * Retire et retourne le sommet de plus petite priorité.
+   *
+   * @return Le sommet retiré.
+   * @throws NoSuchElementException si le tas est vide.
+   */
+  public int poll() {
+    assertNotEmpty();
+
+    int min = heap[0];
+    positions[min] = ABSENT;
+
+    if (--size > 0) {
+      int last = heap[size];
+      heap[0] = last;
+      positions[last] = 0;
+      siftDown(0);
+    }
+
+    return min;
+  }
+
+  /**
+   * Retire un sommet quelconque du tas.
+   *
+   * @param v Un sommet présent dans le tas.
+   * @throws NoSuchElementException si <i>v</i> n'est pas dans le tas.
+   */
+  public void remove(int v) {
+    assertContains(v);
+
+    int i = positions[v];
+    positions[v] = ABSENT;
+
+    if (i < --size) {
+      // Le dernier sommet prend la place de v, puis remonte ou descend selon sa priorité
+      int last = heap[size];
+      heap[i] = last;
+      positions[last] = i;
+      siftUp(i);
+      siftDown(positions[last]);
+    }
+  }
+
+  /**
+   * Vide le tas. Le coût est proportionnel au nombre de sommets encore présents, pas à la capacité.
+   */
+  public void clear() {
+    for (int i = 0; i < size; ++i)
+      positions[heap[i]] = ABSENT;
+    size = 0;
+  }
+
+  // internal helpers
+
+  private void siftUp(int i) {
+    int v = heap[i];
+    int key = keys[v];
+
+    while (i > 0) {
+      int parent = (i - 1) / ARITY;
+      int p = heap[parent];
+      if (keys[p] <= key) break;
+
+      heap[i] = p;
+      positions[p] = i;
+      i = parent;
+    }
+
+    heap[i] = v;
+    positions[v] = i;
+  }
+
+  private void siftDown(int i) {
+    int v = heap[i];
+    int key = keys[v];
+
+    while (true) {
+      int first = ARITY * i + 1;
+      if (first >= size) break;
+
+      // Plus petit des (au plus) 4 enfants
+      int last = Math.min(first + ARITY, size);
+      int minChild = first;
+      int minKey = keys[heap[first]];
+      for (int c = first + 1; c < last; ++c) {
+        int k = keys[heap[c]];
+        if (k < minKey) {
+          minKey = k;
+          minChild = c;
+        }
+      }
+
+      if (minKey >= key) break;
+
+      int child = heap[minChild];
+      heap[i] = child;
+      positions[child] = i;
+      i = minChild;
+    }
+
+    heap[i] = v;
+    positions[v] = i;
+  }
+
+  private void assertContains(int v) {
+    if (!contains(v))
+      throw new NoSuchElementException("Vertex " + v + " not in heap");
+  }
+
+  private void assertNotEmpty() {
+    if (size == 0)
+      throw new NoSuchElementException("Heap is empty");
+  }
+}
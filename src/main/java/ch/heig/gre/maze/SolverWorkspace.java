@@ -0,0 +1,249 @@
+package ch.heig.gre.maze;
+
+import ch.heig.gre.graph.VertexLayout;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * <p>Espace de travail réutilisable d'un {@link GridMazeSolver} : coûts, prédécesseurs, valeurs d'heuristique et
+ * file de priorité des sommets.</p>
+ *
+ * <p>Chaque sommet porte un tampon de génération. Commencer une nouvelle recherche ({@link #reset}) se contente
+ * d'incrémenter la génération courante : seuls les sommets découverts ({@link #discover}) depuis sont considérés
+ * comme initialisés, les autres ont un coût infini. Le coût d'initialisation d'une requête est donc constant, et
+ * non linéaire de la taille de la grille.</p>
+ *
+ * <p>Les tableaux ne sont alloués qu'à la première utilisation, puis lorsqu'une grille plus grande est rencontrée.
+ * Une instance n'est pas thread-safe et ne doit être utilisée que par une recherche à la fois (typiquement une
+ * instance par thread).</p>
+ *
+ * <p>Un espace de travail peut ranger ses tableaux selon une {@link VertexLayout} : il ne sert alors qu'aux grilles de
+ * la taille de cette disposition, et les sommets voisins dans la grille le sont aussi en mémoire. La file de priorité
+ * reste indexée par les numéros des sommets.</p>
+ */
+public final class SolverWorkspace {
+  /** Prédécesseur d'un sommet qui n'en a pas (source ou sommet non découvert) */
+  public static final int NO_PREDECESSOR = -1;
+
+  /** Disposition des tableaux, null pour ranger les sommets par numéro */
+  private final VertexLayout layout;
+
+  /** Génération à laquelle chaque sommet a été découvert pour la dernière fois */
+  private int[] stamps = new int[0];
+
+  /** Génération courante, jamais nulle afin de distinguer les tampons jamais écrits */
+  private int stamp = 0;
+
+  private int[] costs = new int[0];
+  private int[] predecessors = new int[0];
+  private int[] heuristics = new int[0];
+  private IndexedHeap queue = new IndexedHeap(0);
+
+  /** File à seaux, créée à la demande */
+  private BucketQueue bucketQueue;
+
+  /** Files de priorité supplémentaires, créées à la demande */
+  private IndexedHeap[] extraQueues = new IndexedHeap[0];
+
+  /** Espace de travail des recherches depuis la destination, créé à la demande */
+  private SolverWorkspace backward;
+
+  /** Espace de travail des états auxiliaires, créé à la demande */
+  private SolverWorkspace auxiliary;
+
+  /**
+   * Construit un espace de travail rangeant les sommets par numéro, pour des grilles de toutes tailles.
+   */
+  public SolverWorkspace() {
+    this.layout = null;
+  }
+
+  /**
+   * Construit un espace de travail rangeant les sommets selon une disposition.
+   *
+   * @param layout Disposition des sommets, qui fixe la taille des grilles traitées.
+   * @throws NullPointerException si {@code layout} est {@code null}.
+   */
+  public SolverWorkspace(VertexLayout layout) {
+    this.layout = Objects.requireNonNull(layout);
+  }
+
+  /**
+   * <p>Prépare une nouvelle recherche sur un graphe de {@code nbVertices} sommets.</p>
+   *
+   * <p>En temps constant amorti, sauf lorsque les tableaux doivent être agrandis.</p>
+   *
+   * @param nbVertices Nombre de sommets du graphe.
+   * @throws IllegalArgumentException si {@code nbVertices} est négatif, ou différent du nombre de sommets de la
+   * disposition de l'espace de travail.
+   */
+  public void reset(int nbVertices) {
+    if (nbVertices < 0)
+      throw new IllegalArgumentException("Number of vertices: " + nbVertices + " must be non negative");
+    if (layout != null && nbVertices != layout.nbVertices())
+      throw new IllegalArgumentException("Number of vertices: " + nbVertices + " does not match the layout of " +
+          layout.nbVertices() + " vertices");
+
+    // Les tuiles du bord d'une disposition sont complètes
+    int size = layout == null ? nbVertices : layout.size();
+    if (size > stamps.length) {
+      stamps = new int[size];
+      costs = new int[size];
+      predecessors = new int[size];
+      heuristics = new int[size];
+      queue = new IndexedHeap(size);
+      bucketQueue = null;
+      Arrays.fill(extraQueues, null);
+      stamp = 0;
+    } else {
+      // Seuls les sommets encore présents sont parcourus
+      queue.clear();
+      if (bucketQueue != null)
+        bucketQueue.clear();
+      for (IndexedHeap extraQueue : extraQueues) {
+        if (extraQueue != null)
+          extraQueue.clear();
+      }
+    }
+
+    if (++stamp == Integer.MAX_VALUE) {
+      // Débordement (rarissime) : les anciens tampons pourraient redevenir valides
+      Arrays.fill(stamps, 0);
+      stamp = 1;
+    }
+  }
+
+  /**
+   * @param v Un sommet.
+   * @return {@code true} si <i>v</i> a été découvert depuis le dernier {@link #reset}, {@code false} sinon.
+   */
+  public boolean isDiscovered(int v) {
+    return stamps[index(v)] == stamp;
+  }
+
+  /**
+   * Marque un sommet comme découvert, avec un coût infini, sans prédécesseur et la valeur d'heuristique donnée.
+   *
+   * @param v         Un sommet.
+   * @param heuristic Valeur de l'heuristique pour <i>v</i>.
+   */
+  public void discover(int v, int heuristic) {
+    int i = index(v);
+    stamps[i] = stamp;
+    costs[i] = Integer.MAX_VALUE;
+    predecessors[i] = NO_PREDECESSOR;
+    heuristics[i] = heuristic;
+  }
+
+  /**
+   * @param v Un sommet.
+   * @return Le coût courant de <i>v</i>, {@link Integer#MAX_VALUE} s'il n'a pas été découvert.
+   */
+  public int cost(int v) {
+    int i = index(v);
+    return stamps[i] == stamp ? costs[i] : Integer.MAX_VALUE;
+  }
+
+  /**
+   * @param v Un sommet.
+   * @return Le prédécesseur de <i>v</i>, {@link #NO_PREDECESSOR} s'il n'en a pas ou n'a pas été découvert.
+   */
+  public int predecessor(int v) {
+    int i = index(v);
+    return stamps[i] == stamp ? predecessors[i] : NO_PREDECESSOR;
+  }
+
+  /**
+   * @param v Un sommet découvert.
+   * @return La valeur d'heuristique enregistrée à la découverte de <i>v</i> (indéfinie s'il n'a pas été découvert).
+   */
+  public int heuristic(int v) {
+    return heuristics[index(v)];
+  }
+
+  /**
+   * Met à jour le coût et le prédécesseur d'un sommet découvert.
+   *
+   * @param v           Un sommet découvert.
+   * @param cost        Nouveau coût.
+   * @param predecessor Nouveau prédécesseur.
+   */
+  public void update(int v, int cost, int predecessor) {
+    int i = index(v);
+    costs[i] = cost;
+    predecessors[i] = predecessor;
+  }
+
+  /**
+   * @return La file de priorité, vidée à chaque {@link #reset}.
+   */
+  public IndexedHeap queue() {
+    return queue;
+  }
+
+  /**
+   * @param span Écart maximal entre une priorité insérée et la plus petite priorité de la file.
+   * @return Une file à seaux vide, préparée pour l'écart donné.
+   * @throws IllegalArgumentException si {@code span} est négatif ou supérieur à {@link BucketQueue#MAX_SPAN}.
+   * @see BucketQueue#reset
+   */
+  public BucketQueue bucketQueue(int span) {
+    if (bucketQueue == null)
+      bucketQueue = new BucketQueue(stamps.length);
+    bucketQueue.reset(span);
+    return bucketQueue;
+  }
+
+  /**
+   * <p>Files de priorité supplémentaires, pour les algorithmes en gérant plusieurs à la fois (ex. recherche focale).
+   * Comme {@link #queue()}, elles sont vidées à chaque {@link #reset}.</p>
+   *
+   * @param i Numéro de la file, à partir de 0.
+   * @return La file de priorité supplémentaire numéro <i>i</i>.
+   * @throws IllegalArgumentException si {@code i} est négatif.
+   */
+  public IndexedHeap extraQueue(int i) {
+    if (i < 0)
+      throw new IllegalArgumentException("Queue number: " + i + " must be non negative");
+
+    if (i >= extraQueues.length)
+      extraQueues = Arrays.copyOf(extraQueues, i + 1);
+    if (extraQueues[i] == null)
+      extraQueues[i] = new IndexedHeap(stamps.length);
+    return extraQueues[i];
+  }
+
+  /**
+   * @return Un second espace de travail propre à celui-ci, pour les algorithmes cherchant aussi depuis la
+   * destination. Il doit être préparé séparément avec {@link #reset}.
+   */
+  public SolverWorkspace backward() {
+    if (backward == null)
+      backward = layout == null ? new SolverWorkspace() : new SolverWorkspace(layout);
+    return backward;
+  }
+
+  /**
+   * <p>Espace de travail auxiliaire, pour les algorithmes ayant besoin d'un état de plus que la recherche
+   * principale : recherches locales sur un sous-graphe, marquage de sommets, etc.</p>
+   *
+   * <p>Il range les sommets par numéro quelle que soit la disposition de celui-ci et accepte donc des graphes de
+   * toutes tailles. Il doit être préparé séparément avec {@link #reset}.</p>
+   *
+   * @return L'espace de travail auxiliaire propre à celui-ci.
+   */
+  public SolverWorkspace auxiliary() {
+    if (auxiliary == null)
+      auxiliary = new SolverWorkspace();
+    return auxiliary;
+  }
+
+  /**
+   * @param v Un sommet.
+   * @return L'index de <i>v</i> dans les tableaux.
+   */
+  private int index(int v) {
+    return layout == null ? v : layout.index(v);
+  }
+}
@@ -9,7 +9,7 @@ import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.*;
 import java.util.Arrays;
-import java.util.List;
+import java.util.PrimitiveIterator;
 import java.util.Scanner;
 
 // Format :
@@ -33,11 +33,13 @@ public final class MazeIO {
     try (var writer = new BufferedWriter(new FileWriter(file))) {
       writer.write(maze.width() + "\n");
       writer.write(maze.height() + "\n");
-      List<Edge> edges = maze.edges();
-      writer.write(edges.size() + "\n");
+      // Deux parcours des arêtes plutôt que leur liste : le nombre, puis les arêtes elles-mêmes
+      writer.write(maze.edgeStream().count() + "\n");
 
-      for (var edge : edges) {
-        writer.write(edge.u() + " " + edge.v() + "\n");
+      PrimitiveIterator.OfLong edges = maze.edgeStream().iterator();
+      while (edges.hasNext()) {
+        long edge = edges.nextLong();
+        writer.write(Edge.first(edge) + " " + Edge.second(edge) + "\n");
       }
 
       for (int weight : weights) {
@@ -1,9 +1,11 @@
 package ch.heig.gre.maze.impl;
 
+import ch.heig.gre.graph.Edge;
 import ch.heig.gre.graph.Graph;
 import ch.heig.gre.graph.GridGraph2D;
 
 import java.util.ArrayList;
+import java.util.PrimitiveIterator;
 import java.util.random.RandomGenerator;
 
 /**
@@ -70,9 +72,14 @@ public final class MazeTuner {
    * @throws NullPointerException si {@code topology} ou {@code grid} est {@code null}
    */
   public void removeWalls(Graph topology, GridGraph2D grid) {
-    for (var edge : topology.edges()) {
-      if (!grid.areAdjacent(edge.u(), edge.v()) && randomGenerator.nextDouble() < wallRemovalProbability) {
-        grid.addEdge(edge.u(), edge.v());
+    // Parcours séquentiel, dans l'ordre des arêtes : les tirages aléatoires restent reproductibles
+    PrimitiveIterator.OfLong edges = topology.edgeStream().iterator();
+    while (edges.hasNext()) {
+      long edge = edges.nextLong();
+      int u = Edge.first(edge);
+      int v = Edge.second(edge);
+      if (!grid.areAdjacent(u, v) && randomGenerator.nextDouble() < wallRemovalProbability) {
+        grid.addEdge(u, v);
       }
     }
   }
@@ -2,6 +2,7 @@ package ch.heig.gre.maze.impl;
 
 import ch.heig.gre.graph.PositiveWeightFunction;
 
+import java.util.Arrays;
 import java.util.Objects;
 
 /**
@@ -11,6 +12,7 @@ import java.util.Objects;
 public final class ShenaniganWeightFunction implements PositiveWeightFunction {
   private final int[] vertexWeights;
   private final int min;
+  private final int max;
 
   /**
    * <p>Crée une nouvelle fonction de pondération d'arêtes.</p>
@@ -24,6 +26,7 @@ public final class ShenaniganWeightFunction implements PositiveWeightFunction {
     if (min <= 0) throw new IllegalArgumentException("min must be greater than 0");
     this.vertexWeights = Objects.requireNonNull(vertexWeights);
     this.min = min;
+    this.max = Math.max(Arrays.stream(vertexWeights).max().orElse(min), min);
   }
 
   @Override
@@ -35,4 +38,9 @@ public final class ShenaniganWeightFunction implements PositiveWeightFunction {
   public int minWeight() {
     return min;
   }
+
+  @Override
+  public int maxWeight() {
+    return max;
+  }
 }